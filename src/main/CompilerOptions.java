@@ -0,0 +1,127 @@
+package main;
+
+import java.util.concurrent.ExecutorService;
+
+public class CompilerOptions {
+    //calls on a known class are emitted as invokevirtual instead of going through Fptr
+    private boolean directCalls = false;
+    //calls through func<> values go through a per call site MethodHandle with an inline cache
+    private boolean fptrCallSites = false;
+    //int and bool locals and fields are kept unboxed, boxing only happens at List and Fptr boundaries
+    private boolean unboxed = false;
+    //jasmin files are assembled and run inside the compiler's jvm instead of forking java twice
+    private boolean inProcess = false;
+    //class files are assembled inside the compiler from the generated jasmin text, jasmin.jar is not used
+    private boolean classFiles = false;
+    //class files are kept in memory and run through a class loader, nothing is written to output/
+    private boolean inMemory = false;
+    //classes are type checked concurrently on the executor below, errors are still reported in source order
+    private boolean parallelTypeCheck = false;
+    //every class is generated by its own code generator on the executor below
+    private boolean parallelCodeGen = false;
+    //runs the classes of the parallel modes, when unset each compilation starts and shuts down threads of its own
+    private ExecutorService executor = null;
+
+    public boolean setFlag(String flag) {
+        switch (flag) {
+            case "--direct-calls":
+                this.directCalls = true;
+                return true;
+            case "--fptr-call-sites":
+                this.fptrCallSites = true;
+                return true;
+            case "--unboxed":
+                this.unboxed = true;
+                return true;
+            case "--in-process":
+                this.inProcess = true;
+                return true;
+            case "--class-files":
+                this.classFiles = true;
+                return true;
+            case "--in-memory":
+                this.inMemory = true;
+                return true;
+            case "--parallel-type-check":
+                this.parallelTypeCheck = true;
+                return true;
+            case "--parallel-code-gen":
+                this.parallelCodeGen = true;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public boolean isDirectCalls() {
+        return directCalls;
+    }
+
+    public void setDirectCalls(boolean directCalls) {
+        this.directCalls = directCalls;
+    }
+
+    public boolean isFptrCallSites() {
+        return fptrCallSites;
+    }
+
+    public void setFptrCallSites(boolean fptrCallSites) {
+        this.fptrCallSites = fptrCallSites;
+    }
+
+    public boolean isUnboxed() {
+        return unboxed;
+    }
+
+    public void setUnboxed(boolean unboxed) {
+        this.unboxed = unboxed;
+    }
+
+    public boolean isInProcess() {
+        return inProcess;
+    }
+
+    public void setInProcess(boolean inProcess) {
+        this.inProcess = inProcess;
+    }
+
+    public boolean isClassFiles() {
+        return classFiles;
+    }
+
+    public void setClassFiles(boolean classFiles) {
+        this.classFiles = classFiles;
+    }
+
+    public boolean isInMemory() {
+        return inMemory;
+    }
+
+    public void setInMemory(boolean inMemory) {
+        this.inMemory = inMemory;
+    }
+
+    public boolean isParallelTypeCheck() {
+        return parallelTypeCheck;
+    }
+
+    public void setParallelTypeCheck(boolean parallelTypeCheck) {
+        this.parallelTypeCheck = parallelTypeCheck;
+    }
+
+    public boolean isParallelCodeGen() {
+        return parallelCodeGen;
+    }
+
+    public void setParallelCodeGen(boolean parallelCodeGen) {
+        this.parallelCodeGen = parallelCodeGen;
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+}
@@ -7,8 +7,17 @@ import java.io.IOException;
 
 public class Sophia {
     public static void main(String[] args) throws IOException {
-        CharStream reader = CharStreams.fromFileName(args[0]);
-        SophiaCompiler sophiaCompiler = new SophiaCompiler();
-        sophiaCompiler.compile(reader);
+        CompilerOptions options = new CompilerOptions();
+        String inputPath = null;
+        for(String arg : args) {
+            if(!arg.startsWith("--"))
+                inputPath = arg;
+            else if(!options.setFlag(arg))
+                System.out.println("Unknown option " + arg + " ignored");
+        }
+        CharStream reader = CharStreams.fromFileName(inputPath);
+        SophiaCompiler sophiaCompiler = new SophiaCompiler(options);
+        if(!sophiaCompiler.compile(reader))
+            System.exit(1);
     }
 }
@@ -1,6 +1,8 @@
 package main;
 
 import main.ast.nodes.Program;
+import main.execution.JasminAssembler;
+import main.execution.SophiaClassLoader;
 import main.visitor.codeGenerator.CodeGenerator;
 import main.visitor.nameAnalyzer.NameAnalyzer;
 import main.visitor.typeChecker.TypeChecker;
@@ -12,9 +14,33 @@ import parsers.SophiaLexer;
 import parsers.SophiaParser;
 
 import java.io.*;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class SophiaCompiler {
-    public void compile(CharStream textStream) {
+    private final CompilerOptions options;
+
+    public SophiaCompiler(CompilerOptions options) {
+        this.options = options;
+    }
+
+    //false when name analysis or type checking reports errors, nothing is generated or run then
+    public boolean compile(CharStream textStream) {
+        if(!(options.isParallelTypeCheck() || options.isParallelCodeGen()) || options.getExecutor() != null)
+            return compile(textStream, options.getExecutor());
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            return compile(textStream, executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private boolean compile(CharStream textStream, ExecutorService executor) {
         System.out.println("\n--------------------------Compiling--------------------------");
         SophiaLexer sophiaLexer = new SophiaLexer(textStream);
         CommonTokenStream tokenStream = new CommonTokenStream(sophiaLexer);
@@ -26,30 +52,106 @@ public class SophiaCompiler {
         int numberOfErrors = program.accept(errorReporter);
         if(numberOfErrors > 0) {
             System.out.println("\n" + numberOfErrors + " errors detected");
-            System.exit(1);
+            return false;
         }
 //        ASTTreePrinter astTreePrinter = new ASTTreePrinter();
 //        program.accept(astTreePrinter);
-        TypeChecker typeChecker = new TypeChecker(nameAnalyzer.getClassHierarchy());
+        TypeChecker typeChecker = new TypeChecker(nameAnalyzer.getClassHierarchy(), options.isParallelTypeCheck() ? executor : null);
         program.accept(typeChecker);
         numberOfErrors = program.accept(errorReporter);
         if(numberOfErrors > 0) {
             System.out.println("\n" + numberOfErrors + " errors detected");
-            System.exit(1);
+            return false;
         }
-        CodeGenerator codeGenerator = new CodeGenerator(nameAnalyzer.getClassHierarchy());
+        CodeGenerator codeGenerator = new CodeGenerator(nameAnalyzer.getClassHierarchy(), options,
+                options.isParallelCodeGen() ? executor : null);
         program.accept(codeGenerator);
         System.out.println("Compilation successful");
-        runJasminFiles();
+        if(options.isInMemory())
+            runInMemory(codeGenerator.getClasses());
+        else if(options.isInProcess())
+            runInProcess();
+        else
+            runJasminFiles();
+        return true;
+    }
+
+    private void runInMemory(Map<String, byte[]> classes) {
+        System.out.println("\n---------------------------Output---------------------------");
+        runClasses(classes);
+    }
+
+    private void runInProcess() {
+        Map<String, byte[]> classes = options.isClassFiles() ? readClassFiles() : assembleJasminFiles();
+        if(classes == null)
+            return;
+        System.out.println("\n---------------------------Output---------------------------");
+        runClasses(classes);
+    }
+
+    private Map<String, byte[]> assembleJasminFiles() {
+        System.out.println("\n-------------------Generating Class Files-------------------");
+        Map<String, byte[]> classes = new HashMap<>();
+        try {
+            JasminAssembler assembler = new JasminAssembler("utilities/jarFiles/jasmin.jar");
+            File[] jasminFiles = new File("./output").listFiles((dir, name) -> name.endsWith(".j"));
+            boolean hasErrors = false;
+            for(File jasminFile : jasminFiles) {
+                try (Reader reader = new BufferedReader(new FileReader(jasminFile))) {
+                    if(!assembler.assemble(reader, jasminFile.getName(), classes))
+                        hasErrors = true;
+                }
+            }
+            return hasErrors ? null : classes;
+        } catch (IOException | ReflectiveOperationException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private Map<String, byte[]> readClassFiles() {
+        Map<String, byte[]> classes = new HashMap<>();
+        File[] classFiles = new File("./output").listFiles((dir, name) -> name.endsWith(".class"));
+        try {
+            for(File classFile : classFiles) {
+                String className = classFile.getName().substring(0, classFile.getName().length() - ".class".length());
+                classes.put(className, Files.readAllBytes(classFile.toPath()));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return classes;
+    }
+
+    //a failing program is reported and ends only its own run, the jvm stays usable for the programs after it
+    private void runClasses(Map<String, byte[]> classes) {
+        try {
+            new SophiaClassLoader(classes).runMain();
+        } catch (InvocationTargetException e) {
+            reportRuntimeError(e.getCause());
+        } catch (ReflectiveOperationException | LinkageError e) {
+            reportRuntimeError(e);
+        }
+        System.out.flush();
+    }
+
+    private void reportRuntimeError(Throwable error) {
+        System.out.flush();
+        error.printStackTrace();
+        System.out.println("\nRuntime error: " + error);
     }
 
     private void runJasminFiles() {
         try {
-            System.out.println("\n-------------------Generating Class Files-------------------");
             File dir = new File("./output");
-            Process process = Runtime.getRuntime().exec("java -jar jasmin.jar *.j", null, dir);
-            printResults(process.getInputStream());
-            printResults(process.getErrorStream());
+            Process process;
+            if(!options.isClassFiles()) {
+                System.out.println("\n-------------------Generating Class Files-------------------");
+                process = Runtime.getRuntime().exec("java -jar jasmin.jar *.j", null, dir);
+                printResults(process.getInputStream());
+                printResults(process.getErrorStream());
+            }
             System.out.println("\n---------------------------Output---------------------------");
             process = Runtime.getRuntime().exec("java Main", null, dir);
             printResults(process.getInputStream());
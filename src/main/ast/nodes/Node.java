@@ -8,7 +8,16 @@ import java.util.ArrayList;
 public abstract class Node {
     private int line;
     private ArrayList<CompileErrorException> errors = new ArrayList<>();
-    public static boolean isCatchErrorsActive = true;
+    //type checking threads turn error catching off independently while probing for lvalues
+    private static final ThreadLocal<Boolean> isCatchErrorsActive = ThreadLocal.withInitial(() -> true);
+
+    public static boolean isCatchErrorsActive() {
+        return Node.isCatchErrorsActive.get();
+    }
+
+    public static void setCatchErrorsActive(boolean isCatchErrorsActive) {
+        Node.isCatchErrorsActive.set(isCatchErrorsActive);
+    }
 
     public ArrayList<CompileErrorException> flushErrors() {
         ArrayList<CompileErrorException> errors = this.errors;
@@ -17,7 +26,7 @@ public abstract class Node {
     }
 
     public void addError(CompileErrorException e) {
-        if(Node.isCatchErrorsActive) {
+        if(Node.isCatchErrorsActive()) {
             this.errors.add(e);
         }
     }
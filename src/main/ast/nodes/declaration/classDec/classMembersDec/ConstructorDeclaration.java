@@ -1,14 +1,14 @@
 package main.ast.nodes.declaration.classDec.classMembersDec;
 
 import main.ast.nodes.expression.Identifier;
-import main.ast.types.NullType;
+import main.ast.types.Types;
 import main.visitor.IVisitor;
 
 //line -> DEF
 public class ConstructorDeclaration extends MethodDeclaration{
 
     public ConstructorDeclaration(Identifier methodName) {
-        super(methodName, new NullType());
+        super(methodName, Types.NULL);
     }
 
     @Override
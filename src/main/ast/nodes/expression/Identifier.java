@@ -1,15 +1,26 @@
 package main.ast.nodes.expression;
 
+import main.symbolTable.items.SymbolTableItem;
 import main.visitor.IVisitor;
 
 //line -> IDENTIFIER
 public class Identifier extends Expression{
     private String name;
+    //variable, field, method or class this name resolves to, null until it is bound
+    private SymbolTableItem symbolTableItem;
 
     public Identifier(String name) {
         this.name = name;
     }
 
+    public SymbolTableItem getSymbolTableItem() {
+        return symbolTableItem;
+    }
+
+    public void setSymbolTableItem(SymbolTableItem symbolTableItem) {
+        this.symbolTableItem = symbolTableItem;
+    }
+
     public String getName() {
         return name;
     }
@@ -1,6 +1,11 @@
 package main.ast.types;
 
 public class NoType extends Type {
+    public static final NoType INSTANCE = new NoType();
+
+    private NoType() {
+    }
+
     @Override
     public String toString() {
         return "NoType";
@@ -1,6 +1,11 @@
 package main.ast.types;
 
 public class NullType extends Type {
+    public static final NullType INSTANCE = new NullType();
+
+    private NullType() {
+    }
+
     @Override
     public String toString() {
         return "NullType";
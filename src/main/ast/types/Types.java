@@ -0,0 +1,18 @@
+package main.ast.types;
+
+import main.ast.types.single.BoolType;
+import main.ast.types.single.IntType;
+import main.ast.types.single.StringType;
+
+//canonical instances of the types that carry no state, their constructors are private so every use shares them and
+//they compare by reference
+public class Types {
+    public static final IntType INT = IntType.INSTANCE;
+    public static final BoolType BOOL = BoolType.INSTANCE;
+    public static final StringType STRING = StringType.INSTANCE;
+    public static final NullType NULL = NullType.INSTANCE;
+    public static final NoType NO_TYPE = NoType.INSTANCE;
+
+    private Types() {
+    }
+}
@@ -3,6 +3,11 @@ package main.ast.types.single;
 import main.ast.types.Type;
 
 public class BoolType extends Type {
+    public static final BoolType INSTANCE = new BoolType();
+
+    private BoolType() {
+    }
+
     @Override
     public String toString() {
         return "BoolType";
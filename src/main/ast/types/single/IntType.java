@@ -3,6 +3,11 @@ package main.ast.types.single;
 import main.ast.types.Type;
 
 public class IntType extends Type {
+    public static final IntType INSTANCE = new IntType();
+
+    private IntType() {
+    }
+
     @Override
     public String toString() {
         return "IntType";
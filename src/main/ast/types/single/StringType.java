@@ -3,6 +3,11 @@ package main.ast.types.single;
 import main.ast.types.Type;
 
 public class StringType extends Type {
+    public static final StringType INSTANCE = new StringType();
+
+    private StringType() {
+    }
+
     @Override
     public String toString() {
         return "StringType";
@@ -0,0 +1,293 @@
+package main.benchmark;
+
+import main.CompilerOptions;
+import main.ast.nodes.Program;
+import main.execution.SophiaClassLoader;
+import main.symbolTable.SymbolTable;
+import main.symbolTable.exceptions.ItemNotFoundException;
+import main.symbolTable.items.ClassSymbolTableItem;
+import main.symbolTable.items.FieldSymbolTableItem;
+import main.visitor.codeGenerator.CodeGenerator;
+import main.visitor.nameAnalyzer.NameAnalyzer;
+import main.visitor.typeChecker.TypeChecker;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import parsers.SophiaLexer;
+import parsers.SophiaParser;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//times the compiler and compiled programs on generated sophia programs, run from the repository root as
+//java main.benchmark.Benchmark [name...], with no name every benchmark runs
+public class Benchmark {
+    private static final int REPETITIONS = 10;
+    private static final String[] ALL_BENCHMARKS = {"lookup", "subtype", "listPassing", "foreach", "parallelTypeCheck", "parallelCodeGen"};
+
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    //builds what a task needs outside of the timed part
+    private interface Setup {
+        Task prepare() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String[] names = args.length > 0 ? args : ALL_BENCHMARKS;
+        for(String name : names) {
+            switch (name) {
+                case "lookup":
+                    lookup();
+                    break;
+                case "subtype":
+                    subtype(3);
+                    subtype(5);
+                    subtype(7);
+                    break;
+                case "listPassing":
+                    listPassing();
+                    break;
+                case "foreach":
+                    foreach(false);
+                    foreach(true);
+                    break;
+                case "parallelTypeCheck":
+                    parallelTypeCheck();
+                    break;
+                case "parallelCodeGen":
+                    parallelCodeGen();
+                    break;
+                default:
+                    System.out.println("Unknown benchmark " + name + " ignored");
+            }
+        }
+    }
+
+    private static Program parse(String source) {
+        SophiaLexer sophiaLexer = new SophiaLexer(CharStreams.fromString(source));
+        SophiaParser sophiaParser = new SophiaParser(new CommonTokenStream(sophiaLexer));
+        return sophiaParser.sophia().sophiaProgram;
+    }
+
+    private static NameAnalyzer analyze(Program program) {
+        NameAnalyzer nameAnalyzer = new NameAnalyzer(program);
+        nameAnalyzer.analyze();
+        return nameAnalyzer;
+    }
+
+    //compiles the program in memory once, every run defines its classes again in a new class loader so it starts
+    //from fresh static state, what the program prints is dropped
+    private static Setup program(String source, CompilerOptions options) {
+        Program program = parse(source);
+        NameAnalyzer nameAnalyzer = analyze(program);
+        program.accept(new TypeChecker(nameAnalyzer.getClassHierarchy()));
+        options.setInMemory(true);
+        CodeGenerator codeGenerator = new CodeGenerator(nameAnalyzer.getClassHierarchy(), options);
+        program.accept(codeGenerator);
+        Map<String, byte[]> classes = codeGenerator.getClasses();
+        return () -> {
+            SophiaClassLoader classLoader = new SophiaClassLoader(classes);
+            return () -> {
+                PrintStream out = System.out;
+                System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+                try {
+                    classLoader.runMain();
+                } finally {
+                    System.setOut(out);
+                }
+            };
+        };
+    }
+
+    //the best of a few runs, the first ones also pay for class loading and jit compilation
+    private static long bestNanos(Task task) throws Exception {
+        return bestNanos(() -> task);
+    }
+
+    private static long bestNanos(Setup setup) throws Exception {
+        long best = Long.MAX_VALUE;
+        for(int i = 0; i < REPETITIONS; i++) {
+            Task task = setup.prepare();
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static void report(String label, long nanos) {
+        System.out.printf("%-40s %10.3f ms%n", label, nanos / 1e6);
+    }
+
+    //a field of the root class looked up from the class at the bottom of a long inheritance chain
+    private static void lookup() throws Exception {
+        final int depth = 64;
+        final int lookups = 1000000;
+        StringBuilder source = new StringBuilder();
+        source.append("class C0 {\n    f0: int;\n}\n");
+        for(int i = 1; i < depth; i++)
+            source.append("class C").append(i).append(" extends C").append(i - 1).append(" {\n    f")
+                    .append(i).append(": int;\n}\n");
+        source.append("class Main {\n    def Main() {\n    }\n}\n");
+        analyze(parse(source.toString()));
+        String bottomClassKey = ClassSymbolTableItem.START_KEY + "C" + (depth - 1);
+        SymbolTable bottomClass = ((ClassSymbolTableItem) SymbolTable.root.getItem(bottomClassKey, true)).getClassSymbolTable();
+        String fieldKey = FieldSymbolTableItem.START_KEY + "f0";
+        report("lookup: " + lookups + " lookups, depth " + depth, bestNanos(() -> {
+            for(int i = 0; i < lookups; i++)
+                bottomClass.getItem(fieldKey, true);
+        }));
+        report("lookup: " + lookups + " misses, depth " + depth, bestNanos(() -> {
+            for(int i = 0; i < lookups; i++) {
+                try {
+                    bottomClass.getItem(FieldSymbolTableItem.START_KEY + "missing", true);
+                } catch (ItemNotFoundException e) {
+                    //a miss walks the whole chain
+                }
+            }
+        }));
+    }
+
+    //a list(list(..., fptr), fptr) type nested depth times
+    private static String nestedType(int depth) {
+        String type = "list(int, func<int->int>)";
+        for(int i = 0; i < depth; i++)
+            type = "list(" + type + ", func<" + type + "->" + type + ">)";
+        return type;
+    }
+
+    //type checking of assignments between two variables of one nested list and fptr type
+    private static void subtype(int depth) throws Exception {
+        final int assignments = 10000;
+        String type = nestedType(depth);
+        StringBuilder source = new StringBuilder();
+        source.append("class Main {\n    def Main() {\n");
+        source.append("        x: ").append(type).append(";\n");
+        source.append("        y: ").append(type).append(";\n");
+        for(int i = 0; i < assignments / 2; i++)
+            source.append("        x = y;\n        y = x;\n");
+        source.append("    }\n}\n");
+        String text = source.toString();
+        report("subtype: " + assignments + " assignments, depth " + depth, bestNanos(() -> {
+            Program program = parse(text);
+            NameAnalyzer nameAnalyzer = analyze(program);
+            return () -> program.accept(new TypeChecker(nameAnalyzer.getClassHierarchy()));
+        }));
+    }
+
+    //a method reading one element of a list argument, every call copies the list
+    private static void listPassing() throws Exception {
+        final int calls = 200000;
+        String source = "class Main {\n" +
+                "    def Main() {\n" +
+                "        l: list(1000 # int);\n" +
+                "        i: int;\n" +
+                "        s: int;\n" +
+                "        s = 0;\n" +
+                "        for(i = 0; i < " + calls + "; i = i + 1) {\n" +
+                "            s = s + this.read(l, i);\n" +
+                "        }\n" +
+                "        print(s);\n" +
+                "    }\n" +
+                "    def int read(x: list(1000 # int), i: int) {\n" +
+                "        return x[i - i / 1000 * 1000];\n" +
+                "    }\n" +
+                "}\n";
+        report("listPassing: " + calls + " calls", bestNanos(program(source, new CompilerOptions())));
+    }
+
+    //sums a list of ints with foreach over and over
+    private static void foreach(boolean unboxed) throws Exception {
+        final int sums = 10000;
+        String source = "class Main {\n" +
+                "    def Main() {\n" +
+                "        l: list(1000 # int);\n" +
+                "        i: int;\n" +
+                "        x: int;\n" +
+                "        s: int;\n" +
+                "        for(i = 0; i < 1000; i = i + 1)\n" +
+                "            l[i] = i;\n" +
+                "        s = 0;\n" +
+                "        for(i = 0; i < " + sums + "; i = i + 1) {\n" +
+                "            foreach(x in l) {\n" +
+                "                s = s + x;\n" +
+                "            }\n" +
+                "        }\n" +
+                "        print(s);\n" +
+                "    }\n" +
+                "}\n";
+        CompilerOptions options = new CompilerOptions();
+        options.setUnboxed(unboxed);
+        report("foreach: " + sums + " sums" + (unboxed ? ", unboxed" : ""), bestNanos(program(source, options)));
+    }
+
+    //many independent classes whose methods are all straight line arithmetic on a nested list
+    private static String manyClasses(int classes, int methods, int statements) {
+        StringBuilder source = new StringBuilder();
+        for(int i = 0; i < classes; i++) {
+            source.append("class K").append(i).append(" {\n");
+            for(int j = 0; j < methods; j++) {
+                source.append("    def int m").append(j).append("(x: int) {\n");
+                source.append("        l: list(list(3 # int), func<int->int>);\n");
+                source.append("        y: int;\n");
+                source.append("        y = x;\n");
+                for(int k = 0; k < statements; k++)
+                    source.append("        y = y * ").append(k + 1).append(" + l[0][").append(k % 3).append("] - x / 2;\n");
+                source.append("        return y;\n    }\n");
+            }
+            source.append("}\n");
+        }
+        source.append("class Main {\n    def Main() {\n    }\n}\n");
+        return source.toString();
+    }
+
+    //type checking of many classes, one after another and then spread over one thread per available processor
+    private static void parallelTypeCheck() throws Exception {
+        String text = manyClasses(200, 10, 20);
+        int threads = Runtime.getRuntime().availableProcessors();
+        report("parallelTypeCheck: 200 classes, sequential", bestNanos(() -> {
+            Program program = parse(text);
+            NameAnalyzer nameAnalyzer = analyze(program);
+            return () -> program.accept(new TypeChecker(nameAnalyzer.getClassHierarchy()));
+        }));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            report("parallelTypeCheck: 200 classes, " + threads + " threads", bestNanos(() -> {
+                Program program = parse(text);
+                NameAnalyzer nameAnalyzer = analyze(program);
+                return () -> program.accept(new TypeChecker(nameAnalyzer.getClassHierarchy(), executor));
+            }));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    //in memory code generation of many classes, one after another and then spread over one thread per available processor
+    private static void parallelCodeGen() throws Exception {
+        String text = manyClasses(50, 10, 20);
+        int threads = Runtime.getRuntime().availableProcessors();
+        CompilerOptions options = new CompilerOptions();
+        options.setInMemory(true);
+        report("parallelCodeGen: 50 classes, sequential", bestNanos(() -> {
+            Program program = parse(text);
+            NameAnalyzer nameAnalyzer = analyze(program);
+            program.accept(new TypeChecker(nameAnalyzer.getClassHierarchy()));
+            return () -> program.accept(new CodeGenerator(nameAnalyzer.getClassHierarchy(), options));
+        }));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            report("parallelCodeGen: 50 classes, " + threads + " threads", bestNanos(() -> {
+                Program program = parse(text);
+                NameAnalyzer nameAnalyzer = analyze(program);
+                program.accept(new TypeChecker(nameAnalyzer.getClassHierarchy()));
+                return () -> program.accept(new CodeGenerator(nameAnalyzer.getClassHierarchy(), options, executor));
+            }));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package main.execution;
+
+import java.io.*;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Map;
+
+//assembles jasmin files in this jvm through the jasmin.ClassFile api of jasmin.jar
+public class JasminAssembler {
+    private final Class<?> classFileClass;
+    private final Method readJasmin;
+    private final Method errorCount;
+    private final Method getClassName;
+    private final Method write;
+
+    public JasminAssembler(String jasminJarPath) throws IOException, ReflectiveOperationException {
+        URL jasminJar = new File(jasminJarPath).toURI().toURL();
+        ClassLoader jasminLoader = new URLClassLoader(new URL[]{jasminJar}, null);
+        this.classFileClass = jasminLoader.loadClass("jasmin.ClassFile");
+        this.readJasmin = classFileClass.getMethod("readJasmin", Reader.class, String.class, boolean.class);
+        this.errorCount = classFileClass.getMethod("errorCount");
+        this.getClassName = classFileClass.getMethod("getClassName");
+        this.write = classFileClass.getMethod("write", OutputStream.class);
+    }
+
+    //returns false when jasmin reported errors, they are already printed by jasmin itself
+    public boolean assemble(Reader source, String sourceName, Map<String, byte[]> classes) throws IOException {
+        try {
+            Object classFile = classFileClass.getConstructor().newInstance();
+            readJasmin.invoke(classFile, source, sourceName, false);
+            if((int) errorCount.invoke(classFile) > 0)
+                return false;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            write.invoke(classFile, bytes);
+            String className = ((String) getClassName.invoke(classFile)).replace('/', '.');
+            classes.put(className, bytes.toByteArray());
+            return true;
+        } catch (InvocationTargetException e) {
+            throw new IOException(sourceName + ": " + e.getCause(), e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IOException(e);
+        }
+    }
+}
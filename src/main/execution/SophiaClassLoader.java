@@ -0,0 +1,45 @@
+package main.execution;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+//defines the classes of a compiled sophia program from their bytes
+public class SophiaClassLoader extends ClassLoader {
+    private final Map<String, byte[]> classes;
+
+    public SophiaClassLoader(Map<String, byte[]> classes) {
+        super(SophiaClassLoader.class.getClassLoader());
+        this.classes = classes;
+    }
+
+    //classes of the program are defined here even when the compiler's classpath has one of the same name, so each
+    //run gets its own runtime classes and their static state
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if(!classes.containsKey(name))
+            return super.loadClass(name, resolve);
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loadedClass = findLoadedClass(name);
+            if(loadedClass == null)
+                loadedClass = findClass(name);
+            if(resolve)
+                resolveClass(loadedClass);
+            return loadedClass;
+        }
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        byte[] bytes = classes.get(name);
+        if(bytes == null)
+            throw new ClassNotFoundException(name);
+        return defineClass(name, bytes, 0, bytes.length);
+    }
+
+    public void runMain() throws ReflectiveOperationException {
+        //the generated Main class is not public, like when it is started by the java launcher
+        Method main = loadClass("Main").getMethod("main", String[].class);
+        main.setAccessible(true);
+        main.invoke(null, (Object) new String[0]);
+    }
+}
@@ -95,7 +95,7 @@ method returns[MethodDeclaration methodRet]
     d=DEF ((t=type
     { $returnType = $t.typeRet; }
     ) | (VOID
-    { $returnType = new NullType(); }
+    { $returnType = Types.NULL; }
     ))
     name=identifier
     {
@@ -200,7 +200,7 @@ functionPointerType returns[FptrType fptrTypeRet]:
     { $fptrTypeRet.setArgumentsTypes($types.typesWithCommaRet); }
     ) ARROW
     (VOID
-    { $fptrTypeRet.setReturnType(new NullType()); }
+    { $fptrTypeRet.setReturnType(Types.NULL); }
     | t=type
     { $fptrTypeRet.setReturnType($t.typeRet); }
     ) GREATER_THAN
@@ -217,11 +217,11 @@ typesWithComma returns[ArrayList<Type> typesWithCommaRet]:
 
 primitiveDataType returns[Type primitiveTypeRet]:
     INT
-    { $primitiveTypeRet = new IntType(); }
+    { $primitiveTypeRet = Types.INT; }
     | STRING
-    { $primitiveTypeRet = new StringType(); }
+    { $primitiveTypeRet = Types.STRING; }
     | BOOLEAN
-    { $primitiveTypeRet = new BoolType(); }
+    { $primitiveTypeRet = Types.BOOL; }
     ;
 
 methodBody returns[ArrayList<VarDeclaration> localVars, ArrayList<Statement> statements]:
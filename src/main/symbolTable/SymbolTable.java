@@ -3,9 +3,12 @@ package main.symbolTable;
 
 import main.symbolTable.exceptions.ItemAlreadyExistsException;
 import main.symbolTable.exceptions.ItemNotFoundException;
+import main.symbolTable.items.ClassSymbolTableItem;
+import main.symbolTable.items.MethodSymbolTableItem;
 import main.symbolTable.items.SymbolTableItem;
 import main.symbolTable.utils.stack.Stack;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -33,8 +36,13 @@ public class SymbolTable {
 
     //End of static members
 
+    //a failed lookup is part of normal control flow, so it throws a shared exception without a stack trace
+    private static final ItemNotFoundException itemNotFound = new ItemNotFoundException();
+
     public SymbolTable pre;
     private Map<String, SymbolTableItem> items;
+    //only a cyclic inheritance makes pre chains loop, until the chains are linked and checked lookups are guarded
+    private boolean hasCyclicChains = true;
 
     public SymbolTable() {
         this(null);
@@ -51,7 +59,43 @@ public class SymbolTable {
         items.put(item.getKey(), item);
     }
 
+    //called once name analysis is done, later passes only read the tables and may share them between threads
+    public void freeze() {
+        this.items = Collections.unmodifiableMap(this.items);
+        for(SymbolTableItem item : this.items.values()) {
+            if(item instanceof ClassSymbolTableItem)
+                ((ClassSymbolTableItem) item).getClassSymbolTable().freeze();
+            else if(item instanceof MethodSymbolTableItem)
+                ((MethodSymbolTableItem) item).getMethodSymbolTable().freeze();
+        }
+    }
+
+    //called on the root once the class symbol tables are linked to their parents, every table of the program gets the
+    //same answer, so each compilation decides how its own lookups walk
+    public void setHasCyclicChains(boolean hasCyclicChains) {
+        this.hasCyclicChains = hasCyclicChains;
+        for(SymbolTableItem item : this.items.values()) {
+            if(item instanceof ClassSymbolTableItem)
+                ((ClassSymbolTableItem) item).getClassSymbolTable().setHasCyclicChains(hasCyclicChains);
+            else if(item instanceof MethodSymbolTableItem)
+                ((MethodSymbolTableItem) item).getMethodSymbolTable().setHasCyclicChains(hasCyclicChains);
+        }
+    }
+
     public SymbolTableItem getItem(String key, Boolean searchCurrent) throws ItemNotFoundException {
+        if(this.hasCyclicChains)
+            return getItemInCyclicChain(key, searchCurrent);
+        SymbolTable currentSymbolTable = searchCurrent ? this : this.pre;
+        while(currentSymbolTable != null) {
+            SymbolTableItem symbolTableItem = currentSymbolTable.items.get(key);
+            if( symbolTableItem != null )
+                return symbolTableItem;
+            currentSymbolTable = currentSymbolTable.pre;
+        }
+        throw itemNotFound;
+    }
+
+    private SymbolTableItem getItemInCyclicChain(String key, Boolean searchCurrent) throws ItemNotFoundException {
         Set<SymbolTable> visitedSymbolTables = new HashSet<>();
         SymbolTable currentSymbolTable = this;
         if(!searchCurrent) {
@@ -65,7 +109,7 @@ public class SymbolTable {
                 return symbolTableItem;
             currentSymbolTable = currentSymbolTable.pre;
         }
-        throw new ItemNotFoundException();
+        throw itemNotFound;
     }
 
 }
@@ -2,4 +2,7 @@ package main.symbolTable.exceptions;
 
 
 public class ItemNotFoundException extends Exception {
+    public ItemNotFoundException() {
+        super(null, null, false, false);
+    }
 }
@@ -7,11 +7,15 @@ import java.util.*;
 
 public class Graph<N> {
     private Map<N, Set<N>> parentShipRelation = new HashMap<>();
+    //filled by freeze, every node and parent gets an index and every node the set of its ancestors' indexes
+    private Map<N, Integer> indexes;
+    private BitSet[] ancestors;
 
     public void addNode(N desired) throws NodeAlreadyExistsException {
         if (parentShipRelation.containsKey(desired))
             throw new NodeAlreadyExistsException();
         parentShipRelation.put(desired, new HashSet<>());
+        this.unfreeze();
     }
 
     public boolean doesGraphContainNode(N desired) {
@@ -22,6 +26,40 @@ public class Graph<N> {
         if (!parentShipRelation.containsKey(desired))
             throw new GraphDoesNotContainNodeException();
         parentShipRelation.get(desired).add(parentNode);
+        this.unfreeze();
+    }
+
+    //precomputes the ancestors of every node so isSecondNodeAncestorOf neither searches nor allocates until the graph changes
+    public void freeze() {
+        Map<N, Integer> indexes = new HashMap<>();
+        for (Map.Entry<N, Set<N>> entry : parentShipRelation.entrySet()) {
+            indexes.putIfAbsent(entry.getKey(), indexes.size());
+            for (N parent : entry.getValue())
+                indexes.putIfAbsent(parent, indexes.size());
+        }
+        BitSet[] ancestors = new BitSet[indexes.size()];
+        for (N node : parentShipRelation.keySet()) {
+            BitSet nodeAncestors = new BitSet(indexes.size());
+            Deque<N> toVisit = new ArrayDeque<>(parentShipRelation.get(node));
+            while (!toVisit.isEmpty()) {
+                N ancestor = toVisit.pop();
+                int index = indexes.get(ancestor);
+                if (nodeAncestors.get(index))
+                    continue;
+                nodeAncestors.set(index);
+                Set<N> parents = parentShipRelation.get(ancestor);
+                if (parents != null)
+                    toVisit.addAll(parents);
+            }
+            ancestors[indexes.get(node)] = nodeAncestors;
+        }
+        this.indexes = indexes;
+        this.ancestors = ancestors;
+    }
+
+    private void unfreeze() {
+        this.indexes = null;
+        this.ancestors = null;
     }
 
     public Collection<N> getParentsOfNode(N desired) throws GraphDoesNotContainNodeException {
@@ -31,6 +69,15 @@ public class Graph<N> {
     }
 
     public boolean isSecondNodeAncestorOf(N first , N second) {
+        if (ancestors != null) {
+            if (first.equals(second))
+                return true;
+            Integer firstIndex = indexes.get(first);
+            Integer secondIndex = indexes.get(second);
+            if (firstIndex == null || secondIndex == null || ancestors[firstIndex] == null)
+                return false;
+            return ancestors[firstIndex].get(secondIndex);
+        }
         Set<N> visitedNodes = new HashSet<>();
         return _isSecondNodeAncestorOf(first,second, visitedNodes);
     }
@@ -0,0 +1,476 @@
+package main.visitor.codeGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.*;
+
+//builds a class file by parsing the jasmin text the code generator emits, in place of jasmin.jar
+public class ClassFileAssembler {
+    //class files before version 50 are verified without stack map frames
+    private static final int MAJOR_VERSION = 49;
+
+    private static final Map<String, Integer> OPCODES = new HashMap<>();
+    private static final Map<String, Integer> ACCESS_FLAGS = new HashMap<>();
+
+    static {
+        String[] simpleOpcodes = {
+                "nop", "aconst_null", "iconst_m1", "iconst_0", "iconst_1", "iconst_2", "iconst_3", "iconst_4", "iconst_5"
+        };
+        for(int i = 0; i < simpleOpcodes.length; i++)
+            OPCODES.put(simpleOpcodes[i], i);
+        OPCODES.put("bipush", 16);
+        OPCODES.put("sipush", 17);
+        OPCODES.put("ldc", 18);
+        OPCODES.put("ldc_w", 19);
+        OPCODES.put("iload", 21);
+        OPCODES.put("aload", 25);
+        for(int i = 0; i < 4; i++) {
+            OPCODES.put("iload_" + i, 26 + i);
+            OPCODES.put("aload_" + i, 42 + i);
+            OPCODES.put("istore_" + i, 59 + i);
+            OPCODES.put("astore_" + i, 75 + i);
+        }
+        OPCODES.put("iaload", 46);
+        OPCODES.put("aaload", 50);
+        OPCODES.put("baload", 51);
+        OPCODES.put("istore", 54);
+        OPCODES.put("astore", 58);
+        OPCODES.put("iastore", 79);
+        OPCODES.put("aastore", 83);
+        OPCODES.put("bastore", 84);
+        OPCODES.put("pop", 87);
+        OPCODES.put("pop2", 88);
+        OPCODES.put("dup", 89);
+        OPCODES.put("dup_x1", 90);
+        OPCODES.put("dup_x2", 91);
+        OPCODES.put("dup2", 92);
+        OPCODES.put("iadd", 96);
+        OPCODES.put("isub", 100);
+        OPCODES.put("imul", 104);
+        OPCODES.put("idiv", 108);
+        OPCODES.put("irem", 112);
+        OPCODES.put("ineg", 116);
+        OPCODES.put("iand", 126);
+        OPCODES.put("ior", 128);
+        OPCODES.put("ixor", 130);
+        OPCODES.put("iinc", 132);
+        OPCODES.put("i2b", 145);
+        String[] branchOpcodes = {
+                "ifeq", "ifne", "iflt", "ifge", "ifgt", "ifle", "if_icmpeq", "if_icmpne",
+                "if_icmplt", "if_icmpge", "if_icmpgt", "if_icmple", "if_acmpeq", "if_acmpne", "goto"
+        };
+        for(int i = 0; i < branchOpcodes.length; i++)
+            OPCODES.put(branchOpcodes[i], 153 + i);
+        OPCODES.put("ireturn", 172);
+        OPCODES.put("areturn", 176);
+        OPCODES.put("return", 177);
+        OPCODES.put("getstatic", 178);
+        OPCODES.put("putstatic", 179);
+        OPCODES.put("getfield", 180);
+        OPCODES.put("putfield", 181);
+        OPCODES.put("invokevirtual", 182);
+        OPCODES.put("invokespecial", 183);
+        OPCODES.put("invokestatic", 184);
+        OPCODES.put("invokeinterface", 185);
+        OPCODES.put("new", 187);
+        OPCODES.put("newarray", 188);
+        OPCODES.put("anewarray", 189);
+        OPCODES.put("arraylength", 190);
+        OPCODES.put("athrow", 191);
+        OPCODES.put("checkcast", 192);
+        OPCODES.put("instanceof", 193);
+        OPCODES.put("monitorenter", 194);
+        OPCODES.put("monitorexit", 195);
+        OPCODES.put("ifnull", 198);
+        OPCODES.put("ifnonnull", 199);
+
+        ACCESS_FLAGS.put("public", 0x0001);
+        ACCESS_FLAGS.put("private", 0x0002);
+        ACCESS_FLAGS.put("protected", 0x0004);
+        ACCESS_FLAGS.put("static", 0x0008);
+        ACCESS_FLAGS.put("final", 0x0010);
+        ACCESS_FLAGS.put("synchronized", 0x0020);
+        ACCESS_FLAGS.put("volatile", 0x0040);
+        ACCESS_FLAGS.put("transient", 0x0080);
+        ACCESS_FLAGS.put("abstract", 0x0400);
+    }
+
+    private static final int ACC_SUPER = 0x0020;
+    private static final int WIDE = 196;
+
+    private final ConstantPool constantPool = new ConstantPool();
+    private final ByteArrayOutputStream fieldBytes = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream methodBytes = new ByteArrayOutputStream();
+    private int fieldsCount = 0;
+    private int methodsCount = 0;
+    private int classAccess = ACC_SUPER;
+    private int thisClass;
+    private int superClass;
+    private String className;
+
+    private MethodCode currentMethod;
+
+    private static class MethodCode {
+        int access;
+        int nameIndex;
+        int descriptorIndex;
+        int maxStack;
+        int maxLocals;
+        ByteArrayOutputStream code = new ByteArrayOutputStream();
+        Map<String, Integer> labels = new HashMap<>();
+        //offset of the branch instruction and of its 16 bit operand, by target label
+        List<Object[]> branches = new ArrayList<>();
+        List<String[]> catches = new ArrayList<>();
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    //a command of the code generator may hold several lines
+    public void addLine(String line) {
+        for(String part : line.split("\n"))
+            addSingleLine(part);
+    }
+
+    private void addSingleLine(String line) {
+        List<String> tokens = tokenize(line);
+        if(tokens.isEmpty())
+            return;
+        String first = tokens.get(0);
+        if(currentMethod == null) {
+            addHeaderLine(first, tokens);
+            return;
+        }
+        switch (first) {
+            case ".limit":
+                if(tokens.get(1).equals("stack"))
+                    currentMethod.maxStack = Integer.parseInt(tokens.get(2));
+                else
+                    currentMethod.maxLocals = Integer.parseInt(tokens.get(2));
+                return;
+            case ".catch":
+                currentMethod.catches.add(new String[]{tokens.get(1), tokens.get(3), tokens.get(5), tokens.get(7)});
+                return;
+            case ".end":
+                endMethod();
+                return;
+            case ".var":
+            case ".line":
+            case ".throws":
+                return;
+        }
+        if(first.endsWith(":")) {
+            currentMethod.labels.put(first.substring(0, first.length() - 1), currentMethod.code.size());
+            tokens = tokens.subList(1, tokens.size());
+            if(tokens.isEmpty())
+                return;
+        }
+        addInstruction(tokens);
+    }
+
+    private void addHeaderLine(String first, List<String> tokens) {
+        switch (first) {
+            case ".class":
+                this.className = tokens.get(tokens.size() - 1);
+                this.classAccess = getAccess(tokens) | ACC_SUPER;
+                this.thisClass = constantPool.addClass(className);
+                return;
+            case ".super":
+                this.superClass = constantPool.addClass(tokens.get(1));
+                return;
+            case ".field": {
+                String name = tokens.get(tokens.size() - 2);
+                String descriptor = tokens.get(tokens.size() - 1);
+                writeMember(fieldBytes, getAccess(tokens), constantPool.addUtf8(name), constantPool.addUtf8(descriptor));
+                writeShort(fieldBytes, 0);
+                fieldsCount++;
+                return;
+            }
+            case ".method": {
+                String signature = tokens.get(tokens.size() - 1);
+                int descriptorStart = signature.indexOf('(');
+                currentMethod = new MethodCode();
+                currentMethod.access = getAccess(tokens);
+                currentMethod.nameIndex = constantPool.addUtf8(signature.substring(0, descriptorStart));
+                currentMethod.descriptorIndex = constantPool.addUtf8(signature.substring(descriptorStart));
+                return;
+            }
+            default:
+                throw new IllegalArgumentException("Unexpected line in " + className + ": " + first);
+        }
+    }
+
+    private void addInstruction(List<String> tokens) {
+        String mnemonic = tokens.get(0);
+        Integer opcode = OPCODES.get(mnemonic);
+        if(opcode == null)
+            throw new IllegalArgumentException("Unknown instruction " + mnemonic + " in " + className);
+        ByteArrayOutputStream code = currentMethod.code;
+        int offset = code.size();
+        switch (mnemonic) {
+            case "iload":
+            case "aload":
+            case "istore":
+            case "astore": {
+                int slot = Integer.parseInt(tokens.get(1));
+                if(slot > 255) {
+                    code.write(WIDE);
+                    code.write(opcode);
+                    writeShort(code, slot);
+                }
+                else {
+                    code.write(opcode);
+                    code.write(slot);
+                }
+                return;
+            }
+            case "iinc": {
+                int slot = Integer.parseInt(tokens.get(1));
+                int increment = Integer.parseInt(tokens.get(2));
+                if(slot > 255 || increment < Byte.MIN_VALUE || increment > Byte.MAX_VALUE) {
+                    code.write(WIDE);
+                    code.write(opcode);
+                    writeShort(code, slot);
+                    writeShort(code, increment);
+                }
+                else {
+                    code.write(opcode);
+                    code.write(slot);
+                    code.write(increment);
+                }
+                return;
+            }
+            case "bipush":
+                code.write(opcode);
+                code.write(Integer.parseInt(tokens.get(1)));
+                return;
+            case "sipush":
+                code.write(opcode);
+                writeShort(code, Integer.parseInt(tokens.get(1)));
+                return;
+            case "ldc":
+            case "ldc_w": {
+                String operand = tokens.get(1);
+                int index;
+                if(operand.startsWith("\""))
+                    index = constantPool.addString(operand.substring(1));
+                else
+                    index = constantPool.addInteger(Integer.parseInt(operand));
+                if(index > 255) {
+                    code.write(OPCODES.get("ldc_w"));
+                    writeShort(code, index);
+                }
+                else {
+                    code.write(OPCODES.get("ldc"));
+                    code.write(index);
+                }
+                return;
+            }
+            case "new":
+            case "anewarray":
+            case "checkcast":
+            case "instanceof":
+                code.write(opcode);
+                writeShort(code, constantPool.addClass(tokens.get(1)));
+                return;
+            case "newarray":
+                code.write(opcode);
+                code.write(getArrayType(tokens.get(1)));
+                return;
+            case "getstatic":
+            case "putstatic":
+            case "getfield":
+            case "putfield": {
+                String member = tokens.get(1);
+                int nameStart = member.lastIndexOf('/');
+                code.write(opcode);
+                writeShort(code, constantPool.addFieldRef(member.substring(0, nameStart), member.substring(nameStart + 1), tokens.get(2)));
+                return;
+            }
+            case "invokevirtual":
+            case "invokespecial":
+            case "invokestatic":
+            case "invokeinterface": {
+                String member = tokens.get(1);
+                int descriptorStart = member.indexOf('(');
+                int nameStart = member.lastIndexOf('/', descriptorStart);
+                String owner = member.substring(0, nameStart);
+                String name = member.substring(nameStart + 1, descriptorStart);
+                String descriptor = member.substring(descriptorStart);
+                code.write(opcode);
+                if(mnemonic.equals("invokeinterface")) {
+                    writeShort(code, constantPool.addInterfaceMethodRef(owner, name, descriptor));
+                    code.write(Integer.parseInt(tokens.get(2)));
+                    code.write(0);
+                }
+                else
+                    writeShort(code, constantPool.addMethodRef(owner, name, descriptor));
+                return;
+            }
+        }
+        code.write(opcode);
+        if((opcode >= 153 && opcode <= 167) || mnemonic.equals("ifnull") || mnemonic.equals("ifnonnull")) {
+            currentMethod.branches.add(new Object[]{offset, code.size(), tokens.get(1)});
+            writeShort(code, 0);
+        }
+    }
+
+    private void endMethod() {
+        byte[] code = currentMethod.code.toByteArray();
+        for(Object[] branch : currentMethod.branches) {
+            int jump = getLabelOffset((String) branch[2]) - (int) branch[0];
+            if(jump < Short.MIN_VALUE || jump > Short.MAX_VALUE)
+                throw new IllegalStateException("Branch offset too large in " + className);
+            int operand = (int) branch[1];
+            code[operand] = (byte) (jump >> 8);
+            code[operand + 1] = (byte) jump;
+        }
+
+        ByteArrayOutputStream attribute = new ByteArrayOutputStream();
+        writeShort(attribute, currentMethod.maxStack);
+        writeShort(attribute, currentMethod.maxLocals);
+        writeInt(attribute, code.length);
+        attribute.write(code, 0, code.length);
+        writeShort(attribute, currentMethod.catches.size());
+        for(String[] catchBlock : currentMethod.catches) {
+            writeShort(attribute, getLabelOffset(catchBlock[1]));
+            writeShort(attribute, getLabelOffset(catchBlock[2]));
+            writeShort(attribute, getLabelOffset(catchBlock[3]));
+            writeShort(attribute, catchBlock[0].equals("all") ? 0 : constantPool.addClass(catchBlock[0]));
+        }
+        writeShort(attribute, 0);
+
+        writeMember(methodBytes, currentMethod.access, currentMethod.nameIndex, currentMethod.descriptorIndex);
+        writeShort(methodBytes, 1);
+        writeShort(methodBytes, constantPool.addUtf8("Code"));
+        writeInt(methodBytes, attribute.size());
+        methodBytes.write(attribute.toByteArray(), 0, attribute.size());
+        methodsCount++;
+        currentMethod = null;
+    }
+
+    private int getLabelOffset(String label) {
+        Integer offset = currentMethod.labels.get(label);
+        if(offset == null)
+            throw new IllegalStateException("Undefined label " + label + " in " + className);
+        return offset;
+    }
+
+    public byte[] toByteArray() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        try {
+            output.writeInt(0xCAFEBABE);
+            output.writeShort(0);
+            output.writeShort(MAJOR_VERSION);
+            constantPool.write(output);
+            output.writeShort(classAccess);
+            output.writeShort(thisClass);
+            output.writeShort(superClass);
+            output.writeShort(0);
+            output.writeShort(fieldsCount);
+            fieldBytes.writeTo(output);
+            output.writeShort(methodsCount);
+            methodBytes.writeTo(output);
+            output.writeShort(0);
+        } catch (IOException e) {//never reached
+
+        }
+        return bytes.toByteArray();
+    }
+
+    private static int getAccess(List<String> tokens) {
+        int access = 0;
+        for(String token : tokens)
+            access |= ACCESS_FLAGS.getOrDefault(token, 0);
+        return access;
+    }
+
+    private static int getArrayType(String type) {
+        switch (type) {
+            case "boolean":
+                return 4;
+            case "char":
+                return 5;
+            case "byte":
+                return 8;
+            default:
+                return 10;
+        }
+    }
+
+    private static void writeMember(ByteArrayOutputStream output, int access, int nameIndex, int descriptorIndex) {
+        writeShort(output, access);
+        writeShort(output, nameIndex);
+        writeShort(output, descriptorIndex);
+    }
+
+    private static void writeShort(ByteArrayOutputStream output, int value) {
+        output.write(value >> 8);
+        output.write(value);
+    }
+
+    private static void writeInt(ByteArrayOutputStream output, int value) {
+        writeShort(output, value >> 16);
+        writeShort(output, value);
+    }
+
+    //splits a line on whitespace, a quoted string is one token starting with its opening quote
+    private static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while(i < line.length()) {
+            char c = line.charAt(i);
+            if(Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            if(c == '"') {
+                StringBuilder token = new StringBuilder("\"");
+                i++;
+                while(line.charAt(i) != '"') {
+                    char next = line.charAt(i);
+                    if(next == '\\') {
+                        i++;
+                        next = unescape(line, i);
+                        if(line.charAt(i) == 'u')
+                            i += 4;
+                    }
+                    token.append(next);
+                    i++;
+                }
+                i++;
+                tokens.add(token.toString());
+                continue;
+            }
+            int end = i;
+            while(end < line.length() && !Character.isWhitespace(line.charAt(end)))
+                end++;
+            tokens.add(line.substring(i, end));
+            i = end;
+        }
+        return tokens;
+    }
+
+    private static char unescape(String line, int index) {
+        char escaped = line.charAt(index);
+        switch (escaped) {
+            case 'n':
+                return '\n';
+            case 't':
+                return '\t';
+            case 'r':
+                return '\r';
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'u':
+                return (char) Integer.parseInt(line.substring(index + 1, index + 5), 16);
+            default:
+                return escaped;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package main.visitor.codeGenerator;
 
+import main.CompilerOptions;
 import main.ast.nodes.Program;
 import main.ast.nodes.declaration.classDec.ClassDeclaration;
 import main.ast.nodes.declaration.classDec.classMembersDec.ConstructorDeclaration;
@@ -21,6 +22,7 @@ import main.ast.nodes.statement.loop.ForStmt;
 import main.ast.nodes.statement.loop.ForeachStmt;
 import main.ast.types.NullType;
 import main.ast.types.Type;
+import main.ast.types.Types;
 import main.ast.types.functionPointer.FptrType;
 import main.ast.types.list.ListNameType;
 import main.ast.types.list.ListType;
@@ -28,44 +30,115 @@ import main.ast.types.single.BoolType;
 import main.ast.types.single.ClassType;
 import main.ast.types.single.IntType;
 import main.ast.types.single.StringType;
-import main.symbolTable.SymbolTable;
-import main.symbolTable.exceptions.ItemNotFoundException;
-import main.symbolTable.items.ClassSymbolTableItem;
 import main.symbolTable.items.FieldSymbolTableItem;
+import main.symbolTable.items.MethodSymbolTableItem;
+import main.symbolTable.items.SymbolTableItem;
 import main.symbolTable.utils.graph.Graph;
 import main.visitor.Visitor;
 import main.visitor.typeChecker.ExpressionTypeChecker;
+import main.visitor.utils.ClassTasks;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 
 public class CodeGenerator extends Visitor<String> {
+    private static final String FPTR_CALL_SITES_CLASS = "FptrCallSites";
+    private static final String[] RUNTIME_CLASS_PATHS = {
+            "utilities/codeGenerationUtilityClasses/List.j",
+            "utilities/codeGenerationUtilityClasses/Fptr.j",
+            "utilities/codeGenerationUtilityClasses/FptrHandleCache.j",
+            "utilities/codeGenerationUtilityClasses/FptrCallSite.j",
+            "utilities/codeGenerationUtilityClasses/Printer.j"
+    };
+    //runtime classes are the same for every program, in memory they are assembled once per jvm from the .j files
+    //under utilities, so the first in memory compile still reads those from the working directory
+    private static Map<String, byte[]> runtimeClasses;
+
     ExpressionTypeChecker expressionTypeChecker;
     Graph<String> classHierarchy;
+    private final CompilerOptions options;
+    //when set, each class is generated by its own code generator on this executor
+    private final ExecutorService executor;
     private String outputPath;
-    private FileWriter currentFile;
+    private BufferedWriter currentFile;
+    private ClassFileAssembler currentClassFile;
+    private final Map<String, byte[]> classes;
+    private String currentMethodHeader;
+    private ArrayList<String> currentMethodCommands;
     private ClassDeclaration currentClass;
     private MethodDeclaration currentMethod;
 
-    private int numOfUsedTemp;
+    //expression visits append their jasmin code here instead of returning it
+    private StringBuilder commands = new StringBuilder();
+
+    private LocalSlotAllocator slots;
     private int numOfUsedLabel;
+    //call site signatures of each class, a site's field is named after its class and its index there
+    private final Map<String, ArrayList<String>> fptrCallSiteTypes = new LinkedHashMap<>();
+    //record classes of lists with differently typed elements, by class name to their element kinds
+    private final Map<String, String> listRecordKinds = new LinkedHashMap<>();
 
     private String labelContinue;
     private String labelBreak;
 
-    public CodeGenerator(Graph<String> classHierarchy) {
+    public CodeGenerator(Graph<String> classHierarchy, CompilerOptions options) {
+        this(classHierarchy, options, null);
+    }
+
+    public CodeGenerator(Graph<String> classHierarchy, CompilerOptions options, ExecutorService executor) {
         this.classHierarchy = classHierarchy;
+        this.options = options;
+        this.executor = executor;
         this.expressionTypeChecker = new ExpressionTypeChecker(classHierarchy);
+        this.classes = new ConcurrentHashMap<>();
         this.prepareOutputFolder();
-        this.numOfUsedTemp = 0 ;
         this.numOfUsedLabel = 0;
     }
 
+    //generates a single class of a parallel run, class files go to the parent's map
+    private CodeGenerator(CodeGenerator parent) {
+        this.classHierarchy = parent.classHierarchy;
+        this.options = parent.options;
+        this.executor = null;
+        this.expressionTypeChecker = new ExpressionTypeChecker(classHierarchy);
+        this.classes = parent.classes;
+        this.outputPath = parent.outputPath;
+        this.numOfUsedLabel = 0;
+    }
+
+    //class name to class file bytes of the compiled program, only filled in memory
+    public Map<String, byte[]> getClasses() {
+        return classes;
+    }
+
+    private boolean isWritingClassFiles() {
+        return options.isClassFiles() || options.isInMemory();
+    }
+
+    private static synchronized Map<String, byte[]> getRuntimeClasses() {
+        if(runtimeClasses == null) {
+            runtimeClasses = new HashMap<>();
+            for(String runtimeClassPath : RUNTIME_CLASS_PATHS) {
+                ClassFileAssembler assembler = assembleFile(runtimeClassPath);
+                runtimeClasses.put(assembler.getClassName(), assembler.toByteArray());
+            }
+        }
+        return runtimeClasses;
+    }
+
     private void prepareOutputFolder() {
+        if(options.isInMemory()) {
+            this.classes.putAll(getRuntimeClasses());
+            return;
+        }
         this.outputPath = "output/";
         String jasminPath = "utilities/jarFiles/jasmin.jar";
-        String listClassPath = "utilities/codeGenerationUtilityClasses/List.j";
-        String fptrClassPath = "utilities/codeGenerationUtilityClasses/Fptr.j";
         try{
             File directory = new File(this.outputPath);
             File[] files = directory.listFiles();
@@ -76,10 +149,39 @@ public class CodeGenerator extends Visitor<String> {
         }
         catch(SecurityException e) {//never reached
 
+        }
+        if(options.isClassFiles()) {
+            for(String runtimeClassPath : RUNTIME_CLASS_PATHS)
+                writeClassFile(assembleFile(runtimeClassPath));
+            return;
         }
         copyFile(jasminPath, this.outputPath + "jasmin.jar");
-        copyFile(listClassPath, this.outputPath + "List.j");
-        copyFile(fptrClassPath, this.outputPath + "Fptr.j");
+        for(String runtimeClassPath : RUNTIME_CLASS_PATHS)
+            copyFile(runtimeClassPath, this.outputPath + new File(runtimeClassPath).getName());
+    }
+
+    private static ClassFileAssembler assembleFile(String jasminPath) {
+        ClassFileAssembler assembler = new ClassFileAssembler();
+        try (BufferedReader reader = new BufferedReader(new FileReader(jasminPath))) {
+            String line;
+            while ((line = reader.readLine()) != null)
+                assembler.addLine(line);
+        } catch (IOException e) {//never reached
+
+        }
+        return assembler;
+    }
+
+    private void writeClassFile(ClassFileAssembler assembler) {
+        if(options.isInMemory()) {
+            this.classes.put(assembler.getClassName(), assembler.toByteArray());
+            return;
+        }
+        try (OutputStream classFile = new FileOutputStream(this.outputPath + assembler.getClassName() + ".class")) {
+            classFile.write(assembler.toByteArray());
+        } catch (IOException e) {//never reached
+
+        }
     }
 
     private void copyFile(String toBeCopied, String toBePasted) {
@@ -100,26 +202,76 @@ public class CodeGenerator extends Visitor<String> {
     }
 
     private void createFile(String name) {
+        if(isWritingClassFiles()) {
+            this.currentClassFile = new ClassFileAssembler();
+            return;
+        }
         try {
             String path = this.outputPath + name + ".j";
             File file = new File(path);
             file.createNewFile();
-            this.currentFile = new FileWriter(path);
+            this.currentFile = new BufferedWriter(new FileWriter(path));
         } catch (IOException e) {//never reached
 
         }
     }
 
+    private void closeFile() {
+        if(isWritingClassFiles()) {
+            writeClassFile(this.currentClassFile);
+            this.currentClassFile = null;
+            return;
+        }
+        try {
+            this.currentFile.close();
+        } catch (IOException e) {//never reached
+
+        }
+        this.currentFile = null;
+    }
+
     private void addCommand(String command) {
+        int end = command.length();
+        while(end > 0 && command.charAt(end - 1) == '\n')
+            end--;
+        command = command.substring(0, end).replace("\n", "\n\t\t");
+        if(command.startsWith("Label_"))
+            command = "\t" + command;
+        else if(!command.startsWith("."))
+            command = "\t\t" + command;
+
+        if(command.startsWith(".method")) {
+            this.currentMethodHeader = command;
+            this.currentMethodCommands = new ArrayList<>();
+        }
+        else if(command.startsWith(".end method")) {
+            writeMethod();
+            this.currentMethodCommands = null;
+        }
+        else if(this.currentMethodCommands != null)
+            this.currentMethodCommands.add(command);
+        else
+            writeLine(command);
+    }
+
+    private void writeMethod() {
+        MethodFrameAnalyzer frameAnalyzer = new MethodFrameAnalyzer(currentMethodHeader, currentMethodCommands);
+        writeLine(currentMethodHeader);
+        writeLine(".limit stack " + frameAnalyzer.getMaxStack());
+        writeLine(".limit locals " + frameAnalyzer.getMaxLocals());
+        for(String command : currentMethodCommands)
+            writeLine(command);
+        writeLine(".end method");
+    }
+
+    private void writeLine(String line) {
+        if(isWritingClassFiles()) {
+            this.currentClassFile.addLine(line);
+            return;
+        }
         try {
-            command = String.join("\n\t\t", command.split("\n"));
-            if(command.startsWith("Label_"))
-                this.currentFile.write("\t" + command + "\n");
-            else if(command.startsWith("."))
-                this.currentFile.write(command + "\n");
-            else
-                this.currentFile.write("\t\t" + command + "\n");
-            this.currentFile.flush();
+            this.currentFile.write(line);
+            this.currentFile.write('\n');
         } catch (IOException e) {//never reached
 
         }
@@ -141,6 +293,127 @@ public class CodeGenerator extends Visitor<String> {
         return null;
     }
 
+    private String makeMethodSignature(ArrayList<Type> argTypes, Type returnType) {
+        String signature = "(";
+        for(Type argType : argTypes)
+            signature += makeValueSignature(argType);
+        if (returnType instanceof NullType)
+            signature += ")V";
+        else
+            signature += ")" + makeValueSignature(returnType);
+        return signature;
+    }
+
+    private String makeValueSignature(Type t) {
+        if (options.isUnboxed() && t instanceof IntType)
+            return "I";
+        if (options.isUnboxed() && t instanceof BoolType)
+            return "Z";
+        return "L" + makeTypeSignature(t) + ";";
+    }
+
+    private boolean isPrimitiveSlot(String identifier) {
+        if(!options.isUnboxed())
+            return false;
+        Type type = slots.getType(identifier);
+        return type instanceof IntType || type instanceof BoolType;
+    }
+
+    private boolean isUnboxedStore(Expression lValue, Type valueType) {
+        if(!options.isUnboxed() || !(valueType instanceof IntType || valueType instanceof BoolType))
+            return false;
+        if(lValue instanceof Identifier)
+            return isPrimitiveSlot(((Identifier) lValue).getName());
+        if(lValue instanceof ObjectOrListMemberAccess)
+            return expressionTypeChecker.typeOf(((ObjectOrListMemberAccess) lValue).getInstance()) instanceof ClassType;
+        return false;
+    }
+
+    private void unboxedIncrement(Expression operand, int increment, boolean isPrefix) {
+        if(operand instanceof Identifier) {
+            int slot = slotOf(((Identifier) operand).getName());
+            if(!isPrefix)
+                commands.append("iload " + slot + "\n");
+            commands.append("iinc " + slot + " " + increment + "\n");
+            if(isPrefix)
+                commands.append("iload " + slot + "\n");
+        }
+        else {
+            ObjectOrListMemberAccess memberAccess = (ObjectOrListMemberAccess) operand;
+            String className = ((ClassType) expressionTypeChecker.typeOf(memberAccess.getInstance())).getClassName().getName();
+            String field = className + "/" + memberAccess.getMemberName().getName() + " I\n";
+            memberAccess.getInstance().accept(this);
+            commands.append("dup\n");
+            commands.append("getfield " + field);
+            if(!isPrefix)
+                commands.append("dup_x1\n");
+            commands.append("ldc " + increment + "\n");
+            commands.append("iadd\n");
+            if(isPrefix)
+                commands.append("dup_x1\n");
+            commands.append("putfield " + field);
+        }
+    }
+
+    private String generate(Expression expression) {
+        StringBuilder outerCommands = this.commands;
+        this.commands = new StringBuilder();
+        expression.accept(this);
+        String expressionCommands = this.commands.toString();
+        this.commands = outerCommands;
+        return expressionCommands;
+    }
+
+    private MethodSymbolTableItem getDirectCallTarget(MethodCall methodCall) {
+        if(!options.isDirectCalls() || !(methodCall.getInstance() instanceof ObjectOrListMemberAccess))
+            return null;
+        ObjectOrListMemberAccess memberAccess = (ObjectOrListMemberAccess) methodCall.getInstance();
+        Type instanceType = expressionTypeChecker.typeOf(memberAccess.getInstance());
+        if(!(instanceType instanceof ClassType))
+            return null;
+        SymbolTableItem member = memberAccess.getMemberName().getSymbolTableItem();
+        if(!(member instanceof MethodSymbolTableItem))
+            return null;
+        MethodSymbolTableItem method = (MethodSymbolTableItem) member;
+        if(method.getMethodDeclaration() instanceof ConstructorDeclaration)
+            return null;
+        return method;
+    }
+
+    private boolean isVoidCall(MethodCall methodCall) {
+        MethodSymbolTableItem directCallTarget = getDirectCallTarget(methodCall);
+        if(directCallTarget != null)
+            return directCallTarget.getReturnType() instanceof NullType;
+        if(options.isFptrCallSites())
+            return ((FptrType) expressionTypeChecker.typeOf(methodCall.getInstance())).getReturnType() instanceof NullType;
+        return false;
+    }
+
+    private void addFptrCallSitesClass() {
+        createFile(FPTR_CALL_SITES_CLASS);
+        addCommand(".class public " + FPTR_CALL_SITES_CLASS);
+        addCommand(".super java/lang/Object");
+        for(Map.Entry<String, ArrayList<String>> classCallSites : fptrCallSiteTypes.entrySet())
+            for(int i = 0; i < classCallSites.getValue().size(); i++)
+                addCommand(".field public static final " + getFptrCallSiteName(classCallSites.getKey(), i) + " Ljava/lang/invoke/MethodHandle;");
+        addCommand(".method static <clinit>()V");
+        for(Map.Entry<String, ArrayList<String>> classCallSites : fptrCallSiteTypes.entrySet()) {
+            for(int i = 0; i < classCallSites.getValue().size(); i++) {
+                addCommand("ldc \"" + classCallSites.getValue().get(i) + "\"");
+                addCommand("invokestatic FptrCallSite/bootstrap(Ljava/lang/String;)Ljava/lang/invoke/MethodHandle;");
+                addCommand("putstatic " + FPTR_CALL_SITES_CLASS + "/" + getFptrCallSiteName(classCallSites.getKey(), i) + " Ljava/lang/invoke/MethodHandle;");
+            }
+        }
+        addCommand("return");
+        addCommand(".end method");
+        closeFile();
+    }
+
+    //$ can not appear in a sophia identifier, so names of different classes never collide
+    private static String getFptrCallSiteName(String className, int index) {
+        return className + "$site" + index;
+    }
+
     private String getFreshLabel(){
         String label = "Label_";
         label += numOfUsedLabel;
@@ -152,8 +425,6 @@ public class CodeGenerator extends Visitor<String> {
         String className = currentClass.getClassName().getName();
 
         addCommand(".method public <init>()V");
-        addCommand(".limit stack 128");
-        addCommand(".limit locals 128");
         addCommand("aload 0");
 
         if (currentClass.getParentClassName() == null){
@@ -172,116 +443,386 @@ public class CodeGenerator extends Visitor<String> {
             if(fieldType instanceof ClassType || fieldType instanceof FptrType){
                 addCommand("aload 0");
                 addCommand("aconst_null");
-                addCommand("putfield " + className + "/" + fieldName + " L" + makeTypeSignature(fieldType) + ";\n");
+                addCommand("putfield " + className + "/" + fieldName + " " + makeValueSignature(fieldType) + "\n");
             }
             else if(fieldType instanceof IntType || fieldType instanceof BoolType){
                 addCommand("aload 0");
                 addCommand("ldc 0");
-                if(fieldType instanceof IntType)
+                if(fieldType instanceof IntType && !options.isUnboxed())
                     addCommand("invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;");
-                if(fieldType instanceof BoolType)
+                if(fieldType instanceof BoolType && !options.isUnboxed())
                     addCommand("invokestatic java/lang/Boolean/valueOf(Z)Ljava/lang/Boolean;");
-                addCommand("putfield " + className + "/" + fieldName + " L" + makeTypeSignature(fieldType) + ";\n");
+                addCommand("putfield " + className + "/" + fieldName + " " + makeValueSignature(fieldType) + "\n");
             }
             else if(fieldType instanceof StringType){
                 addCommand("aload 0");
                 addCommand("ldc \"\"");
-                addCommand("putfield " + className + "/" + fieldName + " L" + makeTypeSignature(fieldType) + ";\n");
+                addCommand("putfield " + className + "/" + fieldName + " " + makeValueSignature(fieldType) + "\n");
             }
             else{
                 addCommand("aload 0");
                 initializeList((ListType) fieldType);
-                addCommand("putfield " + className + "/" + fieldName + " L" + makeTypeSignature(fieldType) + ";\n");
+                addCommand("putfield " + className + "/" + fieldName + " " + makeValueSignature(fieldType) + "\n");
             }
         }
         addCommand("return");
         addCommand(".end method");
     }
 
+    //prints are buffered, whatever is left is written out when the program ends, even with an uncaught exception
     private void addStaticMainMethod() {
         addCommand(".method public static main([Ljava/lang/String;)V");
-        addCommand(".limit stack 128");
-        addCommand(".limit locals 128");
-
+        addCommand(".catch all from Label_Main_Start to Label_Main_End using Label_Main_Handler");
 
+        addCommand("Label_Main_Start:");
         addCommand("new Main");
         addCommand("invokespecial Main/<init>()V");
+        addCommand("Label_Main_End:");
 
+        addCommand("invokestatic Printer/flush()V");
         addCommand("return");
+        addCommand("Label_Main_Handler:");
+        addCommand("invokestatic Printer/flush()V");
+        addCommand("athrow");
         addCommand(".end method");
     }
 
     private int slotOf(String identifier) {
-        int count = 1;
-        for(VarDeclaration arg : currentMethod.getArgs()){
-            if(arg.getVarName().getName().equals(identifier))
-                return count;
-            count++;
+        return slots.getSlot(identifier);
+    }
+
+    //lists of only ints or only bools keep them in an int[] or boolean[], null for lists kept in an Object[]
+    private Type getPackedElementType(ListType listType) {
+        boolean allInts = true;
+        boolean allBools = true;
+        for(ListNameType element : listType.getElementsTypes()) {
+            allInts &= element.getType() instanceof IntType;
+            allBools &= element.getType() instanceof BoolType;
         }
-        for(VarDeclaration var : currentMethod.getLocalVars())
-        {
-            if(var.getVarName().getName().equals(identifier))
-                return count;
-            count++;
+        if(allInts)
+            return Types.INT;
+        if(allBools)
+            return Types.BOOL;
+        return null;
+    }
+
+    //int, bool, string and list elements keep their kind in every subtype of a list, any other element is an object
+    private static char getListElementKind(Type elementType) {
+        if(elementType instanceof IntType)
+            return 'I';
+        if(elementType instanceof BoolType)
+            return 'Z';
+        if(elementType instanceof StringType)
+            return 'S';
+        if(elementType instanceof ListType)
+            return 'L';
+        return 'O';
+    }
+
+    private static String getListRecordFieldSignature(char kind) {
+        if(kind == 'I' || kind == 'Z')
+            return String.valueOf(kind);
+        if(kind == 'S')
+            return "Ljava/lang/String;";
+        if(kind == 'L')
+            return "LList;";
+        return "Ljava/lang/Object;";
+    }
+
+    //lists whose elements are not all of one kind can only be indexed by constants, each element gets a field of a
+    //record class named after the kinds, so every list a value of the list's type can hold has the same class
+    private String getListRecordClass(ListType listType) {
+        String kinds = "";
+        for(ListNameType element : listType.getElementsTypes())
+            kinds += getListElementKind(element.getType());
+        if(kinds.chars().distinct().count() < 2)
+            return null;
+        String className = "List$" + kinds;
+        listRecordKinds.put(className, kinds);
+        return className;
+    }
+
+    private String getListRecordField(ListType listType, int index) {
+        String className = getListRecordClass(listType);
+        char kind = getListElementKind(listType.getElementsTypes().get(index).getType());
+        return className + "/e" + index + " " + getListRecordFieldSignature(kind);
+    }
+
+    private void addListRecordClass(String className, String kinds) {
+        createFile(className);
+        addCommand(".class public final " + className);
+        addCommand(".super List");
+        for(int i = 0; i < kinds.length(); i++)
+            addCommand(".field public e" + i + " " + getListRecordFieldSignature(kinds.charAt(i)));
+        addCommand(".method public <init>()V");
+        addCommand("aload 0");
+        addCommand("invokespecial List/<init>()V");
+        addCommand("return");
+        addCommand(".end method");
+        addCommand(".method public copy()LList;");
+        addCommand("new " + className);
+        addCommand("dup");
+        addCommand("invokespecial " + className + "/<init>()V");
+        for(int i = 0; i < kinds.length(); i++) {
+            String field = className + "/e" + i + " " + getListRecordFieldSignature(kinds.charAt(i));
+            addCommand("dup");
+            addCommand("aload 0");
+            addCommand("getfield " + field);
+            if(kinds.charAt(i) == 'L')
+                addCommand("invokevirtual List/copy()LList;");
+            addCommand("putfield " + field);
+        }
+        addCommand("areturn");
+        addCommand(".end method");
+        closeFile();
+    }
+
+    private String getListArraySignature(ListType listType) {
+        Type packedType = getPackedElementType(listType);
+        if(packedType instanceof IntType)
+            return "[I";
+        if(packedType instanceof BoolType)
+            return "[Z";
+        return "[Ljava/lang/Object;";
+    }
+
+    private String getListArrayField(ListType listType) {
+        Type packedType = getPackedElementType(listType);
+        if(packedType instanceof IntType)
+            return "List/ints " + getListArraySignature(listType);
+        if(packedType instanceof BoolType)
+            return "List/bools " + getListArraySignature(listType);
+        return "List/elements " + getListArraySignature(listType);
+    }
+
+    private String newListArray(ListType listType) {
+        Type packedType = getPackedElementType(listType);
+        String newArray = "ldc " + listType.getElementsTypes().size() + "\n";
+        if(packedType instanceof IntType)
+            return newArray + "newarray int\n";
+        if(packedType instanceof BoolType)
+            return newArray + "newarray boolean\n";
+        return newArray + "anewarray java/lang/Object\n";
+    }
+
+    private String getListArrayStore(ListType listType) {
+        Type packedType = getPackedElementType(listType);
+        if(packedType instanceof IntType)
+            return "iastore\n";
+        if(packedType instanceof BoolType)
+            return "bastore\n";
+        return "aastore\n";
+    }
+
+    private String getListArrayLoad(ListType listType) {
+        Type packedType = getPackedElementType(listType);
+        if(packedType instanceof IntType)
+            return "iaload\n";
+        if(packedType instanceof BoolType)
+            return "baload\n";
+        return "aaload\n";
+    }
+
+    private String getListConstructor(ListType listType) {
+        return "invokespecial List/<init>(" + getListArraySignature(listType) + ")V\n";
+    }
+
+    //takes the list and the index from the stack and leaves the element like any expression of elementType
+    private String loadListElement(ListType listType, Type elementType) {
+        Type packedType = getPackedElementType(listType);
+        if(packedType instanceof IntType)
+            return "invokevirtual List/getInt(I)I\n";
+        if(packedType instanceof BoolType)
+            return "invokevirtual List/getBool(I)Z\n";
+        String load = "invokevirtual List/getElement(I)Ljava/lang/Object;\n";
+        load += "checkcast " + makeTypeSignature(elementType) + "\n";
+        if(elementType instanceof IntType)
+            load += "invokevirtual java/lang/Integer/intValue()I\n";
+        if(elementType instanceof BoolType)
+            load += "invokevirtual java/lang/Boolean/booleanValue()Z\n";
+        return load;
+    }
+
+    //pushes what loadListElement and storeListElement with the same index take from the stack
+    private void pushListElement(Expression instance, ListType listType, Expression index) {
+        instance.accept(this);
+        String recordClass = getListRecordClass(listType);
+        if(recordClass != null)
+            commands.append("checkcast " + recordClass + "\n");
+        else
+            index.accept(this);
+    }
+
+    private void pushListElement(Expression instance, ListType listType, int index) {
+        instance.accept(this);
+        String recordClass = getListRecordClass(listType);
+        if(recordClass != null)
+            commands.append("checkcast " + recordClass + "\n");
+        else
+            commands.append("ldc " + index + "\n");
+    }
+
+    private static int getConstantListIndex(Expression index) {
+        return index instanceof IntValue ? ((IntValue) index).getConstant() : -1;
+    }
+
+    private String throwListIndexOutOfBounds() {
+        return "new java/lang/IndexOutOfBoundsException\ndup\n"
+                + "invokespecial java/lang/IndexOutOfBoundsException/<init>()V\nathrow\n";
+    }
+
+    private String loadListElement(ListType listType, int index, Type elementType) {
+        if(getListRecordClass(listType) == null)
+            return loadListElement(listType, elementType);
+        if(index < 0 || index >= listType.getElementsTypes().size())
+            return throwListIndexOutOfBounds();
+        String load = "getfield " + getListRecordField(listType, index) + "\n";
+        if(getListElementKind(elementType) == 'O' && !(elementType instanceof NullType))
+            load += "checkcast " + makeTypeSignature(elementType) + "\n";
+        return load;
+    }
+
+    private String storeListElement(ListType listType, int index, Type elementType) {
+        if(getListRecordClass(listType) == null)
+            return storeListElement(listType, elementType);
+        if(index < 0 || index >= listType.getElementsTypes().size())
+            return throwListIndexOutOfBounds();
+        return "putfield " + getListRecordField(listType, index) + "\n";
+    }
+
+    private boolean isKnownListIndex(ListType listType, Expression index) {
+        return index instanceof IntValue && ((IntValue) index).getConstant() >= 0
+                && ((IntValue) index).getConstant() < listType.getElementsTypes().size();
+    }
+
+    //an index inside the list's fixed length can not fail, so the element is read from the array without a call
+    private void loadKnownListElement(Expression instance, ListType listType, int index, Type elementType) {
+        if(getListRecordClass(listType) != null) {
+            pushListElement(instance, listType, index);
+            commands.append(loadListElement(listType, index, elementType));
+            return;
         }
-        if (identifier.equals("")){
-            int temp = numOfUsedTemp;
-            numOfUsedTemp++;
-            return count + temp;
+        instance.accept(this);
+        //getElement has to see reads of inner lists, a shared list copies its elements before handing one out
+        if(elementType instanceof ListType) {
+            commands.append("ldc " + index + "\n");
+            commands.append(loadListElement(listType, elementType));
+            return;
         }
-        return 0;
+        Type packedType = getPackedElementType(listType);
+        commands.append("getfield " + getListArrayField(listType) + "\n");
+        commands.append("ldc " + index + "\n");
+        commands.append(getListArrayLoad(listType));
+        if(packedType == null) {
+            commands.append("checkcast " + makeTypeSignature(elementType) + "\n");
+            if(elementType instanceof IntType)
+                commands.append("invokevirtual java/lang/Integer/intValue()I\n");
+            if(elementType instanceof BoolType)
+                commands.append("invokevirtual java/lang/Boolean/booleanValue()Z\n");
+        }
+    }
+
+    //takes the list, the index and the value as an expression of elementType from the stack
+    private String storeListElement(ListType listType, Type elementType) {
+        Type packedType = getPackedElementType(listType);
+        if(packedType instanceof IntType)
+            return "invokevirtual List/setInt(II)V\n";
+        if(packedType instanceof BoolType)
+            return "invokevirtual List/setBool(IZ)V\n";
+        String store = "";
+        if(elementType instanceof IntType)
+            store += "invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;\n";
+        if(elementType instanceof BoolType)
+            store += "invokestatic java/lang/Boolean/valueOf(Z)Ljava/lang/Boolean;\n";
+        return store + "invokevirtual List/setElement(ILjava/lang/Object;)V\n";
     }
 
     private void initializeList(ListType listType) {
+        String recordClass = getListRecordClass(listType);
+        if(recordClass != null) {
+            addCommand("new " + recordClass);
+            addCommand("dup");
+            addCommand("invokespecial " + recordClass + "/<init>()V");
+            ArrayList<ListNameType> elements = listType.getElementsTypes();
+            for(int i = 0; i < elements.size(); i++) {
+                Type elementType = elements.get(i).getType();
+                if(!(elementType instanceof StringType || elementType instanceof ListType))
+                    continue;
+                addCommand("dup");
+                if(elementType instanceof StringType)
+                    addCommand("ldc \"\"");
+                else
+                    initializeList((ListType) elementType);
+                addCommand("putfield " + getListRecordField(listType, i));
+            }
+            return;
+        }
         addCommand("new List");
         addCommand("dup");
-        addCommand("new java/util/ArrayList");
-        addCommand("dup");
-        addCommand("invokespecial java/util/ArrayList/<init>()V");
+        addCommand(newListArray(listType));
+
+        //int and bool arrays already hold zeros and null needs no store
+        if(getPackedElementType(listType) == null) {
+            ArrayList<ListNameType> elements = listType.getElementsTypes();
+            for (int i = 0; i < elements.size(); i++) {
+                Type elementType = elements.get(i).getType();
+                if(elementType instanceof ClassType || elementType instanceof FptrType)
+                    continue;
+                addCommand("dup");
+                addCommand("ldc " + i);
 
-        for (ListNameType element : listType.getElementsTypes()) {
-            addCommand("dup");
+                if(elementType instanceof IntType || elementType instanceof BoolType){
+                    addCommand("ldc 0");
+                    if(elementType instanceof IntType)
+                        addCommand("invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;");
+                    if(elementType instanceof BoolType)
+                        addCommand("invokestatic java/lang/Boolean/valueOf(Z)Ljava/lang/Boolean;");
+                }
+                else if(elementType instanceof StringType)
+                    addCommand("ldc \"\"");
+                else
+                    initializeList((ListType) elementType);
 
-            if(element.getType() instanceof ClassType || element.getType() instanceof FptrType){
-                addCommand("aconst_null");
-                addCommand("invokevirtual java/util/ArrayList/add(Ljava/lang/Object;)Z");
+                addCommand("aastore");
             }
-            else if(element.getType() instanceof IntType || element.getType() instanceof BoolType){
-                addCommand("ldc 0");
-                if(element.getType() instanceof IntType)
-                    addCommand("invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;");
-                if(element.getType() instanceof BoolType)
-                    addCommand("invokestatic java/lang/Boolean/valueOf(Z)Ljava/lang/Boolean;");
-                addCommand("invokevirtual java/util/ArrayList/add(Ljava/lang/Object;)Z");
-            }
-            else if(element.getType() instanceof StringType){
-                addCommand("ldc \"\"");
-                addCommand("invokevirtual java/util/ArrayList/add(Ljava/lang/Object;)Z");
-            }
-            else{
-                initializeList((ListType) element.getType());
-                addCommand("invokevirtual java/util/ArrayList/add(Ljava/lang/Object;)Z");
-            }
-
-            addCommand("pop");
         }
-        addCommand("invokespecial List/<init>(Ljava/util/ArrayList;)V");
+        addCommand(getListConstructor(listType));
     }
 
     @Override
     public String visit(Program program) {
-        for(ClassDeclaration classDeclaration : program.getClasses())
-        {
-            currentClass = classDeclaration;
-            expressionTypeChecker.setCurrentClass(classDeclaration);
-            classDeclaration.accept(this);
+        if(this.executor != null) {
+            List<CodeGenerator> classGenerators = ClassTasks.run(this.executor, program.getClasses(), classDeclaration -> {
+                CodeGenerator classGenerator = new CodeGenerator(this);
+                classGenerator.generateClass(classDeclaration);
+                return classGenerator;
+            });
+            for(CodeGenerator classGenerator : classGenerators) {
+                fptrCallSiteTypes.putAll(classGenerator.fptrCallSiteTypes);
+                listRecordKinds.putAll(classGenerator.listRecordKinds);
+            }
+        }
+        else {
+            for(ClassDeclaration classDeclaration : program.getClasses())
+                generateClass(classDeclaration);
         }
+        if(!fptrCallSiteTypes.isEmpty())
+            addFptrCallSitesClass();
+        for(Map.Entry<String, String> listRecord : listRecordKinds.entrySet())
+            addListRecordClass(listRecord.getKey(), listRecord.getValue());
         return null;
     }
 
+    private void generateClass(ClassDeclaration classDeclaration) {
+        currentClass = classDeclaration;
+        expressionTypeChecker.setCurrentClass(classDeclaration);
+        classDeclaration.accept(this);
+    }
+
     @Override
     public String visit(ClassDeclaration classDeclaration) {
         currentClass = classDeclaration;
+        numOfUsedLabel = 0;
         String className = classDeclaration.getClassName().getName();
         createFile(className);
         addCommand(".class " + className);
@@ -313,6 +854,7 @@ public class CodeGenerator extends Visitor<String> {
             currentMethod = method;
             method.accept(this);
         }
+        closeFile();
         return null;
     }
 
@@ -332,30 +874,29 @@ public class CodeGenerator extends Visitor<String> {
 
     @Override
     public String visit(MethodDeclaration methodDeclaration) {
+        slots = new LocalSlotAllocator(methodDeclaration);
 
         String header = "";
         String className = currentClass.getClassName().getName();
         if (methodDeclaration instanceof ConstructorDeclaration){
             header += ".method public <init>(";
             for(VarDeclaration arg : methodDeclaration.getArgs()){
-                header += "L" + makeTypeSignature(arg.getType()) + ";";
+                header += makeValueSignature(arg.getType());
             }
             header += ")V";
         }
         else{
             header += ".method public " + methodDeclaration.getMethodName().getName() + "(";
             for(VarDeclaration arg : methodDeclaration.getArgs()){
-                header += "L" + makeTypeSignature(arg.getType()) + ";";
+                header += makeValueSignature(arg.getType());
             }
             if (methodDeclaration.getReturnType() instanceof NullType)
                 header += ")V";
             else
-                header += ")L"  + makeTypeSignature(methodDeclaration.getReturnType()) + ";";
+                header += ")"  + makeValueSignature(methodDeclaration.getReturnType());
         }
 
         addCommand(header);
-        addCommand(".limit stack 128");
-        addCommand(".limit locals 128");
 
         if(methodDeclaration instanceof ConstructorDeclaration) {
 
@@ -376,26 +917,26 @@ public class CodeGenerator extends Visitor<String> {
                 if(fieldType instanceof ClassType || fieldType instanceof FptrType){
                     addCommand("aload 0");
                     addCommand("aconst_null");
-                    addCommand("putfield " + className + "/" + fieldName + " L" + makeTypeSignature(fieldType) + ";\n");
+                    addCommand("putfield " + className + "/" + fieldName + " " + makeValueSignature(fieldType) + "\n");
                 }
                 else if(fieldType instanceof IntType || fieldType instanceof BoolType){
                     addCommand("aload 0");
                     addCommand("ldc 0");
-                    if(fieldType instanceof IntType)
+                    if(fieldType instanceof IntType && !options.isUnboxed())
                         addCommand("invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;");
-                    if(fieldType instanceof BoolType)
+                    if(fieldType instanceof BoolType && !options.isUnboxed())
                         addCommand("invokestatic java/lang/Boolean/valueOf(Z)Ljava/lang/Boolean;");
-                    addCommand("putfield " + className + "/" + fieldName + " L" + makeTypeSignature(fieldType) + ";\n");
+                    addCommand("putfield " + className + "/" + fieldName + " " + makeValueSignature(fieldType) + "\n");
                 }
                 else if(fieldType instanceof StringType){
                     addCommand("aload 0");
                     addCommand("ldc \"\"");
-                    addCommand("putfield " + className + "/" + fieldName + " L" + makeTypeSignature(fieldType) + ";\n");
+                    addCommand("putfield " + className + "/" + fieldName + " " + makeValueSignature(fieldType) + "\n");
                 }
                 else{
                     addCommand("aload 0");
                     initializeList((ListType) fieldType);
-                    addCommand("putfield " + className + "/" + fieldName + " L" + makeTypeSignature(fieldType) + ";\n");
+                    addCommand("putfield " + className + "/" + fieldName + " " + makeValueSignature(fieldType) + "\n");
                 }
             }
 
@@ -412,8 +953,6 @@ public class CodeGenerator extends Visitor<String> {
             addCommand("return");
 
         addCommand(".end method");
-
-        numOfUsedTemp = 0;
         return null;
     }
 
@@ -421,8 +960,8 @@ public class CodeGenerator extends Visitor<String> {
     public String visit(FieldDeclaration fieldDeclaration) {
         String fieldName = fieldDeclaration.getVarDeclaration().getVarName().getName();
         Type fieldType = fieldDeclaration.getVarDeclaration().getType();
-        String signature = makeTypeSignature(fieldType);
-        addCommand(".field " + fieldName + " L" + signature + ";");
+        String signature = makeValueSignature(fieldType);
+        addCommand(".field " + fieldName + " " + signature);
         return null;
     }
 
@@ -435,6 +974,10 @@ public class CodeGenerator extends Visitor<String> {
             addCommand("aconst_null");
             addCommand("astore " + slot);
         }
+        else if(isPrimitiveSlot(varDeclaration.getVarName().getName())){
+            addCommand("ldc 0");
+            addCommand("istore " + slot);
+        }
         else if(type instanceof IntType || type instanceof BoolType){
             addCommand("ldc 0");
             if(type instanceof IntType)
@@ -457,7 +1000,7 @@ public class CodeGenerator extends Visitor<String> {
     @Override
     public String visit(AssignmentStmt assignmentStmt) {
         BinaryExpression assignExpr = new BinaryExpression(assignmentStmt.getlValue(), assignmentStmt.getrValue(), BinaryOperator.assign);
-        addCommand(assignExpr.accept(this));
+        addCommand(generate(assignExpr));
         addCommand("pop");
         return null;
     }
@@ -474,7 +1017,7 @@ public class CodeGenerator extends Visitor<String> {
     public String visit(ConditionalStmt conditionalStmt) {
         String labelFalse = getFreshLabel();
         String labelAfter = getFreshLabel();
-        addCommand(conditionalStmt.getCondition().accept(this));
+        addCommand(generate(conditionalStmt.getCondition()));
         addCommand("ifeq " + labelFalse);
         conditionalStmt.getThenBody().accept(this);
         addCommand("goto " + labelAfter);
@@ -488,34 +1031,38 @@ public class CodeGenerator extends Visitor<String> {
     @Override
     public String visit(MethodCallStmt methodCallStmt) {
         expressionTypeChecker.setIsInMethodCallStmt(true);
-        addCommand(methodCallStmt.getMethodCall().accept(this));
-        addCommand("pop");
+        addCommand(generate(methodCallStmt.getMethodCall()));
+        if(!isVoidCall(methodCallStmt.getMethodCall()))
+            addCommand("pop");
         expressionTypeChecker.setIsInMethodCallStmt(false);
         return null;
     }
 
     @Override
     public String visit(PrintStmt print) {
-        addCommand("getstatic java/lang/System/out Ljava/io/PrintStream;");
-        Type argType = print.getArg().accept(expressionTypeChecker);
-        addCommand(print.getArg().accept(this));
+        Type argType = expressionTypeChecker.typeOf(print.getArg());
+        addCommand(generate(print.getArg()));
         if (argType instanceof IntType)
-            addCommand("invokevirtual java/io/PrintStream/print(I)V");
+            addCommand("invokestatic Printer/print(I)V");
         if (argType instanceof BoolType)
-            addCommand("invokevirtual java/io/PrintStream/print(Z)V");
+            addCommand("invokestatic Printer/print(Z)V");
         if (argType instanceof StringType)
-            addCommand("invokevirtual java/io/PrintStream/print(Ljava/lang/String;)V");
+            addCommand("invokestatic Printer/print(Ljava/lang/String;)V");
         return null;
     }
 
     @Override
     public String visit(ReturnStmt returnStmt) {
-        Type type = returnStmt.getReturnedExpr().accept(expressionTypeChecker);
+        Type type = expressionTypeChecker.typeOf(returnStmt.getReturnedExpr());
         if(type instanceof NullType) {
             addCommand("return");
         }
         else {
-            addCommand( returnStmt.getReturnedExpr().accept(this) );
+            addCommand(generate(returnStmt.getReturnedExpr()));
+            if(options.isUnboxed() && (type instanceof IntType || type instanceof BoolType)) {
+                addCommand("ireturn");
+                return null;
+            }
             if(type instanceof IntType)
                 addCommand("invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;");
             if(type instanceof BoolType)
@@ -540,11 +1087,12 @@ public class CodeGenerator extends Visitor<String> {
 
     @Override
     public String visit(ForeachStmt foreachStmt) {
-        int tempIndex = slotOf("");
+        int tempList = slots.allocateTemp();
+        int tempIndex = slots.allocateTemp();
         int iteratorSlot = slotOf(foreachStmt.getVariable().getName());
-        Type iteratorType = foreachStmt.getVariable().accept(expressionTypeChecker);
+        Type iteratorType = expressionTypeChecker.typeOf(foreachStmt.getVariable());
 
-        ListType listType = (ListType) foreachStmt.getList().accept(expressionTypeChecker);
+        ListType listType = (ListType) expressionTypeChecker.typeOf(foreachStmt.getList());
         int listSize = listType.getElementsTypes().size();
 
         String labelStart = getFreshLabel();
@@ -557,7 +1105,9 @@ public class CodeGenerator extends Visitor<String> {
         labelContinue = labelUpdate;
         labelBreak = labelAfter;
 
-        addCommand(foreachStmt.getList().accept(this));
+        //the list is kept in a local, a value left on the stack across the loop keeps the jit from compiling it on entry
+        addCommand(generate(foreachStmt.getList()));
+        addCommand("astore " + tempList);
 
         addCommand("ldc 0");
         addCommand("istore " + tempIndex);
@@ -568,12 +1118,32 @@ public class CodeGenerator extends Visitor<String> {
         addCommand("ldc " + listSize);
         addCommand("if_icmpge " + labelAfter);
 
-        addCommand("dup");
+        addCommand("aload " + tempList);
 
-        addCommand("iload " + tempIndex);
-        addCommand("invokevirtual List/getElement(I)Ljava/lang/Object;\n");
-        addCommand("checkcast " + makeTypeSignature(iteratorType) + "\n");
-        addCommand("astore " + iteratorSlot);
+        //the body may write through an inner list iterator, so those still go through getElement
+        if(iteratorType instanceof ListType) {
+            addCommand("iload " + tempIndex);
+            addCommand(loadListElement(listType, iteratorType));
+            addCommand("astore " + iteratorSlot);
+        }
+        //any other element is read from the array, which is fetched again on every iteration since a write to a
+        //shared list in the body replaces it
+        else {
+            addCommand("getfield " + getListArrayField(listType));
+            addCommand("iload " + tempIndex);
+            addCommand(getListArrayLoad(listType));
+            if(isPrimitiveSlot(foreachStmt.getVariable().getName()))
+                addCommand("istore " + iteratorSlot);
+            else {
+                if(iteratorType instanceof IntType)
+                    addCommand("invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;");
+                else if(iteratorType instanceof BoolType)
+                    addCommand("invokestatic java/lang/Boolean/valueOf(Z)Ljava/lang/Boolean;");
+                else
+                    addCommand("checkcast " + makeTypeSignature(iteratorType));
+                addCommand("astore " + iteratorSlot);
+            }
+        }
 
         foreachStmt.getBody().accept(this);
 
@@ -586,7 +1156,8 @@ public class CodeGenerator extends Visitor<String> {
         
         addCommand("goto " + labelStart);
         addCommand(labelAfter + ":");
-        addCommand("pop");
+        slots.releaseTemp(tempIndex);
+        slots.releaseTemp(tempList);
 
         labelContinue = labelTempContinue;
         labelBreak = labelTempBreak;
@@ -612,7 +1183,7 @@ public class CodeGenerator extends Visitor<String> {
         addCommand(labelStart + ":");
 
         if (forStmt.getCondition() != null) {
-            addCommand(forStmt.getCondition().accept(this));
+            addCommand(generate(forStmt.getCondition()));
             addCommand("ifeq " + labelAfter);
         }
 
@@ -633,106 +1204,126 @@ public class CodeGenerator extends Visitor<String> {
     @Override
     public String visit(BinaryExpression binaryExpression) {
         BinaryOperator operator = binaryExpression.getBinaryOperator();
-        Type operandType = binaryExpression.getFirstOperand().accept(expressionTypeChecker);
-        String commands = "";
+        Type operandType = expressionTypeChecker.typeOf(binaryExpression.getFirstOperand());
         if (operator == BinaryOperator.add) {
-            commands += binaryExpression.getFirstOperand().accept(this);
-            commands += binaryExpression.getSecondOperand().accept(this);
-            commands += "iadd\n";
+            binaryExpression.getFirstOperand().accept(this);
+            binaryExpression.getSecondOperand().accept(this);
+            commands.append("iadd\n");
         }
         else if (operator == BinaryOperator.sub) {
-            commands += binaryExpression.getFirstOperand().accept(this);
-            commands += binaryExpression.getSecondOperand().accept(this);
-            commands += "isub\n";
+            binaryExpression.getFirstOperand().accept(this);
+            binaryExpression.getSecondOperand().accept(this);
+            commands.append("isub\n");
         }
         else if (operator == BinaryOperator.mult) {
-            commands += binaryExpression.getFirstOperand().accept(this);
-            commands += binaryExpression.getSecondOperand().accept(this);
-            commands += "imul\n";
+            binaryExpression.getFirstOperand().accept(this);
+            binaryExpression.getSecondOperand().accept(this);
+            commands.append("imul\n");
         }
         else if (operator == BinaryOperator.div) {
-            commands += binaryExpression.getFirstOperand().accept(this);
-            commands += binaryExpression.getSecondOperand().accept(this);
-            commands += "idiv\n";
+            binaryExpression.getFirstOperand().accept(this);
+            binaryExpression.getSecondOperand().accept(this);
+            commands.append("idiv\n");
         }
         else if (operator == BinaryOperator.mod) {
-            commands += binaryExpression.getFirstOperand().accept(this);
-            commands += binaryExpression.getSecondOperand().accept(this);
-            commands += "irem\n";
+            binaryExpression.getFirstOperand().accept(this);
+            binaryExpression.getSecondOperand().accept(this);
+            commands.append("irem\n");
         }
         else if((operator == BinaryOperator.gt) || (operator == BinaryOperator.lt)) {
-            commands += binaryExpression.getFirstOperand().accept(this);
-            commands += binaryExpression.getSecondOperand().accept(this);
+            binaryExpression.getFirstOperand().accept(this);
+            binaryExpression.getSecondOperand().accept(this);
             String labelFalse = getFreshLabel();
             String labelAfter = getFreshLabel();
             if(operator == BinaryOperator.gt)
-                commands += "if_icmple " + labelFalse + "\n";
+                commands.append("if_icmple " + labelFalse + "\n");
             else
-                commands += "if_icmpge " + labelFalse + "\n";
-            commands += "ldc " + "1\n";
-            commands += "goto " + labelAfter + "\n";
-            commands += labelFalse + ":\n";
-            commands += "ldc " + "0\n";
-            commands += labelAfter + ":\n";
+                commands.append("if_icmpge " + labelFalse + "\n");
+            commands.append("ldc " + "1\n");
+            commands.append("goto " + labelAfter + "\n");
+            commands.append(labelFalse + ":\n");
+            commands.append("ldc " + "0\n");
+            commands.append(labelAfter + ":\n");
         }
         else if((operator == BinaryOperator.eq) || (operator == BinaryOperator.neq)) {
-            commands += binaryExpression.getFirstOperand().accept(this);
-            commands += binaryExpression.getSecondOperand().accept(this);
+            binaryExpression.getFirstOperand().accept(this);
+            binaryExpression.getSecondOperand().accept(this);
             String labelFalse = getFreshLabel();
             String labelAfter = getFreshLabel();
             if(operator == BinaryOperator.eq){
                 if (!(operandType instanceof IntType) && !(operandType instanceof BoolType))
-                    commands += "if_acmpne " + labelFalse + "\n";
+                    commands.append("if_acmpne " + labelFalse + "\n");
                 else
-                    commands += "if_icmpne " + labelFalse + "\n";
+                    commands.append("if_icmpne " + labelFalse + "\n");
             }
             else{
                 if (!(operandType instanceof IntType) && !(operandType instanceof BoolType))
-                    commands += "if_acmpeq " + labelFalse + "\n";
+                    commands.append("if_acmpeq " + labelFalse + "\n");
                 else
-                    commands += "if_icmpeq " + labelFalse + "\n";
+                    commands.append("if_icmpeq " + labelFalse + "\n");
 
             }
-            commands += "ldc " + "1\n";
-            commands += "goto " + labelAfter + "\n";
-            commands += labelFalse + ":\n";
-            commands += "ldc " + "0\n";
-            commands += labelAfter + ":\n";
+            commands.append("ldc " + "1\n");
+            commands.append("goto " + labelAfter + "\n");
+            commands.append(labelFalse + ":\n");
+            commands.append("ldc " + "0\n");
+            commands.append(labelAfter + ":\n");
         }
         else if(operator == BinaryOperator.and) {
             String labelFalse = getFreshLabel();
             String labelAfter = getFreshLabel();
-            commands += binaryExpression.getFirstOperand().accept(this);
-            commands += "ifeq " + labelFalse + "\n";
-            commands += binaryExpression.getSecondOperand().accept(this);
-            commands += "ifeq " + labelFalse + "\n";
-            commands += "ldc " + "1\n";
-            commands += "goto " + labelAfter + "\n";
-            commands += labelFalse + ":\n";
-            commands += "ldc " + "0\n";
-            commands += labelAfter + ":\n";
+            binaryExpression.getFirstOperand().accept(this);
+            commands.append("ifeq " + labelFalse + "\n");
+            binaryExpression.getSecondOperand().accept(this);
+            commands.append("ifeq " + labelFalse + "\n");
+            commands.append("ldc " + "1\n");
+            commands.append("goto " + labelAfter + "\n");
+            commands.append(labelFalse + ":\n");
+            commands.append("ldc " + "0\n");
+            commands.append(labelAfter + ":\n");
         }
         else if(operator == BinaryOperator.or) {
             String labelTrue = getFreshLabel();
             String labelAfter = getFreshLabel();
-            commands += binaryExpression.getFirstOperand().accept(this);
-            commands += "ifne " + labelTrue + "\n";
-            commands += binaryExpression.getSecondOperand().accept(this);
-            commands += "ifne " + labelTrue + "\n";
-            commands += "ldc " + "0\n";
-            commands += "goto " + labelAfter + "\n";
-            commands += labelTrue + ":\n";
-            commands += "ldc " + "1\n";
-            commands += labelAfter + ":\n";
+            binaryExpression.getFirstOperand().accept(this);
+            commands.append("ifne " + labelTrue + "\n");
+            binaryExpression.getSecondOperand().accept(this);
+            commands.append("ifne " + labelTrue + "\n");
+            commands.append("ldc " + "0\n");
+            commands.append("goto " + labelAfter + "\n");
+            commands.append(labelTrue + ":\n");
+            commands.append("ldc " + "1\n");
+            commands.append(labelAfter + ":\n");
         }
         else if(operator == BinaryOperator.assign) {
-            Type firstType = binaryExpression.getFirstOperand().accept(expressionTypeChecker);
-            Type secondType = binaryExpression.getSecondOperand().accept(expressionTypeChecker);
-            String secondOperandCommands = binaryExpression.getSecondOperand().accept(this);
+            Type firstType = expressionTypeChecker.typeOf(binaryExpression.getFirstOperand());
+            Type secondType = expressionTypeChecker.typeOf(binaryExpression.getSecondOperand());
+            String secondOperandCommands = generate(binaryExpression.getSecondOperand());
             if(firstType instanceof ListType) {
-                secondOperandCommands = "new List\ndup\n" + secondOperandCommands + "invokespecial List/<init>(LList;)V\n";
+                secondOperandCommands += "invokevirtual List/copy()LList;\n";
+            }
+
+            if(isUnboxedStore(binaryExpression.getFirstOperand(), secondType)) {
+                if(binaryExpression.getFirstOperand() instanceof Identifier) {
+                    int slot = slotOf(((Identifier) binaryExpression.getFirstOperand()).getName());
+                    commands.append(secondOperandCommands);
+                    commands.append("dup\n");
+                    commands.append("istore " + slot + "\n");
+                }
+                else {
+                    ObjectOrListMemberAccess memberAccess = (ObjectOrListMemberAccess) binaryExpression.getFirstOperand();
+                    String className = ((ClassType) expressionTypeChecker.typeOf(memberAccess.getInstance())).getClassName().getName();
+                    String fieldSignature = " " + makeValueSignature(secondType) + "\n";
+                    memberAccess.getInstance().accept(this);
+                    commands.append(secondOperandCommands);
+                    commands.append("dup_x1\n");
+                    commands.append("putfield " + className + "/" + memberAccess.getMemberName().getName() + fieldSignature);
+                }
+                return null;
             }
 
+            //list elements are boxed by storeListElement, only where the list's layout needs it
+            String elementValueCommands = secondOperandCommands;
             if(secondType instanceof IntType)
                 secondOperandCommands += "invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;\n";
             if(secondType instanceof BoolType)
@@ -742,38 +1333,30 @@ public class CodeGenerator extends Visitor<String> {
             if(binaryExpression.getFirstOperand() instanceof Identifier) {
                 Identifier identifier = (Identifier)binaryExpression.getFirstOperand();
                 int slot = slotOf(identifier.getName());
-                commands += secondOperandCommands;
-                commands += "astore " + slot + "\n";
-                commands += "aload " + slot + "\n";
+                commands.append(secondOperandCommands);
+                commands.append("astore " + slot + "\n");
+                commands.append("aload " + slot + "\n");
                 if (secondType instanceof IntType)
-                    commands += "invokevirtual java/lang/Integer/intValue()I\n";
+                    commands.append("invokevirtual java/lang/Integer/intValue()I\n");
                 if (secondType instanceof BoolType)
-                    commands += "invokevirtual java/lang/Boolean/booleanValue()Z\n";
+                    commands.append("invokevirtual java/lang/Boolean/booleanValue()Z\n");
             }
             else if(binaryExpression.getFirstOperand() instanceof ListAccessByIndex) {
                 Expression instance = ((ListAccessByIndex) binaryExpression.getFirstOperand()).getInstance();
                 Expression index = ((ListAccessByIndex) binaryExpression.getFirstOperand()).getIndex();
-                commands += instance.accept(this);
-                commands += index.accept(this);
-                commands += secondOperandCommands;
-                commands += "invokevirtual List/setElement(ILjava/lang/Object;)V\n";
-
-                commands += instance.accept(this);
-                commands += index.accept(this);
-                commands += "invokevirtual List/getElement(I)Ljava/lang/Object;\n";
-                commands += "checkcast " + makeTypeSignature(secondType) + "\n";
-                if (secondType instanceof IntType)
-                    commands += "invokevirtual java/lang/Integer/intValue()I\n";
-                if (secondType instanceof BoolType)
-                    commands += "invokevirtual java/lang/Boolean/booleanValue()Z\n";
-
+                ListType listType = (ListType) expressionTypeChecker.typeOf(instance);
+                pushListElement(instance, listType, index);
+                commands.append(elementValueCommands);
+                commands.append(storeListElement(listType, getConstantListIndex(index), secondType));
 
+                pushListElement(instance, listType, index);
+                commands.append(loadListElement(listType, getConstantListIndex(index), secondType));
             }
             else if(binaryExpression.getFirstOperand() instanceof ObjectOrListMemberAccess) {
                 Expression instance = ((ObjectOrListMemberAccess) binaryExpression.getFirstOperand()).getInstance();
-                Type memberType = binaryExpression.getFirstOperand().accept(expressionTypeChecker);
+                Type memberType = expressionTypeChecker.typeOf(binaryExpression.getFirstOperand());
                 String memberName = ((ObjectOrListMemberAccess) binaryExpression.getFirstOperand()).getMemberName().getName();
-                Type instanceType = instance.accept(expressionTypeChecker);
+                Type instanceType = expressionTypeChecker.typeOf(instance);
                 if(instanceType instanceof ListType) {
                     int index = 0;
                     ListType listType = (ListType)instanceType;
@@ -786,114 +1369,102 @@ public class CodeGenerator extends Visitor<String> {
                             break;
                         index++;
                     }
-                    commands += instance.accept(this);
-                    commands += "ldc " + index + "\n";
-                    commands += secondOperandCommands;
-                    commands += "invokevirtual List/setElement(ILjava/lang/Object;)V\n";
-
-                    commands += instance.accept(this);
-                    commands += "ldc " + index + "\n";
-                    commands += "invokevirtual List/getElement(I)Ljava/lang/Object;\n";
-                    commands += "checkcast " + makeTypeSignature(secondType) + "\n";
-                    if (secondType instanceof IntType)
-                        commands += "invokevirtual java/lang/Integer/intValue()I\n";
-                    if (secondType instanceof BoolType)
-                        commands += "invokevirtual java/lang/Boolean/booleanValue()Z\n";
+                    pushListElement(instance, listType, index);
+                    commands.append(elementValueCommands);
+                    commands.append(storeListElement(listType, index, secondType));
+
+                    pushListElement(instance, listType, index);
+                    commands.append(loadListElement(listType, index, secondType));
 
                 }
                 else if(instanceType instanceof ClassType) {
                     String className = ((ClassType)instanceType).getClassName().getName();
-                    commands += instance.accept(this);
-                    commands += secondOperandCommands;
-                    commands += "putfield " + className + "/" + memberName + " L" + makeTypeSignature(memberType) + ";\n";
+                    instance.accept(this);
+                    commands.append(secondOperandCommands);
+                    commands.append("putfield " + className + "/" + memberName + " " + makeValueSignature(memberType) + "\n");
 
-                    commands += instance.accept(this);
-                    commands += "getfield " + className + "/" + memberName + " L" + makeTypeSignature(memberType) + ";\n";
+                    instance.accept(this);
+                    commands.append("getfield " + className + "/" + memberName + " " + makeValueSignature(memberType) + "\n");
                     if (secondType instanceof IntType)
-                        commands += "invokevirtual java/lang/Integer/intValue()I\n";
+                        commands.append("invokevirtual java/lang/Integer/intValue()I\n");
                     if (secondType instanceof BoolType)
-                        commands += "invokevirtual java/lang/Boolean/booleanValue()Z\n";
+                        commands.append("invokevirtual java/lang/Boolean/booleanValue()Z\n");
                 }
             }
         }
-        return commands;
+        return null;
     }
 
     @Override
     public String visit(UnaryExpression unaryExpression) {
         UnaryOperator operator = unaryExpression.getOperator();
-        String commands = "";
         if(operator == UnaryOperator.minus) {
-            commands += unaryExpression.getOperand().accept(this);
-            commands += "ineg\n";
+            unaryExpression.getOperand().accept(this);
+            commands.append("ineg\n");
         }
         else if(operator == UnaryOperator.not) {
             String labelTrue = getFreshLabel();
             String labelAfter = getFreshLabel();
-            commands += unaryExpression.getOperand().accept(this);
-            commands +=  "ifne " + labelTrue + "\n";
-            commands += "ldc " + "1\n";
-            commands += "goto " + labelAfter + "\n";
-            commands += labelTrue + ":\n";
-            commands += "ldc " + "0\n";
-            commands += labelAfter + ":\n";
+            unaryExpression.getOperand().accept(this);
+            commands.append( "ifne " + labelTrue + "\n");
+            commands.append("ldc " + "1\n");
+            commands.append("goto " + labelAfter + "\n");
+            commands.append(labelTrue + ":\n");
+            commands.append("ldc " + "0\n");
+            commands.append(labelAfter + ":\n");
         }
         else if((operator == UnaryOperator.predec) || (operator == UnaryOperator.preinc)) {
-            if(unaryExpression.getOperand() instanceof Identifier) {
+            if(isUnboxedStore(unaryExpression.getOperand(), Types.INT)) {
+                int increment = (operator == UnaryOperator.preinc) ? 1 : -1;
+                unboxedIncrement(unaryExpression.getOperand(), increment, true);
+            }
+            else if(unaryExpression.getOperand() instanceof Identifier) {
                 Identifier identifier = (Identifier)unaryExpression.getOperand();
                 int slot = slotOf(identifier.getName());
 
-                commands += "aload " + slot + "\n";
-                commands += "invokevirtual java/lang/Integer/intValue()I\n";
-                commands += "ldc 1\n";
+                commands.append("aload " + slot + "\n");
+                commands.append("invokevirtual java/lang/Integer/intValue()I\n");
+                commands.append("ldc 1\n");
 
                 if (operator == UnaryOperator.preinc)
-                    commands += "iadd\n";
+                    commands.append("iadd\n");
                 else
-                    commands += "isub\n";
+                    commands.append("isub\n");
 
-                commands += "dup\n";
-                commands += "invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;\n";
-                commands += "astore " + slot + "\n";
+                commands.append("dup\n");
+                commands.append("invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;\n");
+                commands.append("astore " + slot + "\n");
             }
             else if(unaryExpression.getOperand() instanceof ListAccessByIndex) {
                 Expression instance = ((ListAccessByIndex) unaryExpression.getOperand()).getInstance();
                 Expression index = ((ListAccessByIndex) unaryExpression.getOperand()).getIndex();
-                Type memberType = unaryExpression.getOperand().accept(expressionTypeChecker);
+                Type memberType = expressionTypeChecker.typeOf(unaryExpression.getOperand());
+                ListType listType = (ListType) expressionTypeChecker.typeOf(instance);
 
-                commands += instance.accept(this);
-                commands += index.accept(this);
+                pushListElement(instance, listType, index);
 
-                commands += instance.accept(this);
-                commands += index.accept(this);
+                pushListElement(instance, listType, index);
 
-                commands += "invokevirtual List/getElement(I)Ljava/lang/Object;\n";
-                commands += "checkcast " + makeTypeSignature(memberType) + "\n";
-                commands += "invokevirtual java/lang/Integer/intValue()I\n";
-                commands += "ldc 1\n";
+                commands.append(loadListElement(listType, getConstantListIndex(index), memberType));
+                commands.append("ldc 1\n");
 
                 if (operator == UnaryOperator.preinc)
-                    commands += "iadd\n";
+                    commands.append("iadd\n");
                 else
-                    commands += "isub\n";
-
+                    commands.append("isub\n");
 
-                commands += "invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;\n";
 
-                commands += "invokevirtual List/setElement(ILjava/lang/Object;)V\n";
+                commands.append(storeListElement(listType, getConstantListIndex(index), memberType));
 
-                commands += instance.accept(this);
-                commands += index.accept(this);
+                pushListElement(instance, listType, index);
 
-                commands += "invokevirtual List/getElement(I)Ljava/lang/Object;\n";
-                commands += "checkcast " + makeTypeSignature(memberType) + "\n";
-                commands += "invokevirtual java/lang/Integer/intValue()I\n";
+                commands.append(loadListElement(listType, getConstantListIndex(index), memberType));
             }
             else if(unaryExpression.getOperand() instanceof ObjectOrListMemberAccess) {
                 Expression instance = ((ObjectOrListMemberAccess) unaryExpression.getOperand()).getInstance();
-                Type memberType = unaryExpression.getOperand().accept(expressionTypeChecker);
+                Type memberType = expressionTypeChecker.typeOf(unaryExpression.getOperand());
                 String memberName = ((ObjectOrListMemberAccess) unaryExpression.getOperand()).getMemberName().getName();
-                Type instanceType = instance.accept(expressionTypeChecker);
+                Type instanceType = expressionTypeChecker.typeOf(instance);
                 if(instanceType instanceof ListType) {
                     int index = 0;
                     ListType listType = (ListType)instanceType;
@@ -906,112 +1477,99 @@ public class CodeGenerator extends Visitor<String> {
                             break;
                         index++;
                     }
-                    commands += instance.accept(this);
-                    commands += "ldc " + index + "\n";
+                    pushListElement(instance, listType, index);
 
-                    commands += instance.accept(this);
-                    commands += "ldc " + index + "\n";
+                    pushListElement(instance, listType, index);
 
-                    commands += "invokevirtual List/getElement(I)Ljava/lang/Object;\n";
-                    commands += "checkcast " + makeTypeSignature(memberType) + "\n";
-                    commands += "invokevirtual java/lang/Integer/intValue()I\n";
-                    commands += "ldc 1\n";
+                    commands.append(loadListElement(listType, index, memberType));
+                    commands.append("ldc 1\n");
 
                     if (operator == UnaryOperator.preinc)
-                        commands += "iadd\n";
+                        commands.append("iadd\n");
                     else
-                        commands += "isub\n";
+                        commands.append("isub\n");
 
 
-                    commands += "invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;\n";
+                    commands.append(storeListElement(listType, index, memberType));
 
-                    commands += "invokevirtual List/setElement(ILjava/lang/Object;)V\n";
+                    pushListElement(instance, listType, index);
 
-                    commands += instance.accept(this);
-                    commands += "ldc " + index + "\n";
-
-                    commands += "invokevirtual List/getElement(I)Ljava/lang/Object;\n";
-                    commands += "checkcast " + makeTypeSignature(memberType) + "\n";
-                    commands += "invokevirtual java/lang/Integer/intValue()I\n";
+                    commands.append(loadListElement(listType, index, memberType));
                 }
                 else if(instanceType instanceof ClassType) {
                     String className = ((ClassType)instanceType).getClassName().getName();
-                    commands += instance.accept(this);
-                    commands += "dup\n";
-                    commands += "getfield " + className + "/" + memberName + " L" + makeTypeSignature(memberType) + ";\n";
-                    commands += "invokevirtual java/lang/Integer/intValue()I\n";
-                    commands += "ldc 1\n";
+                    instance.accept(this);
+                    commands.append("dup\n");
+                    commands.append("getfield " + className + "/" + memberName + " " + makeValueSignature(memberType) + "\n");
+                    commands.append("invokevirtual java/lang/Integer/intValue()I\n");
+                    commands.append("ldc 1\n");
 
                     if (operator == UnaryOperator.preinc)
-                        commands += "iadd\n";
+                        commands.append("iadd\n");
                     else
-                        commands += "isub\n";
+                        commands.append("isub\n");
 
-                    commands += "invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;\n";
-                    commands += "putfield " + className + "/" + memberName + " L" + makeTypeSignature(memberType) + ";\n";
+                    commands.append("invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;\n");
+                    commands.append("putfield " + className + "/" + memberName + " " + makeValueSignature(memberType) + "\n");
 
-                    commands += instance.accept(this);
-                    commands += "getfield " + className + "/" + memberName + " L" + makeTypeSignature(memberType) + ";\n";
-                    commands += "invokevirtual java/lang/Integer/intValue()I\n";
+                    instance.accept(this);
+                    commands.append("getfield " + className + "/" + memberName + " " + makeValueSignature(memberType) + "\n");
+                    commands.append("invokevirtual java/lang/Integer/intValue()I\n");
                 }
             }
         }
         else if((operator == UnaryOperator.postdec) || (operator == UnaryOperator.postinc)) {
-            if(unaryExpression.getOperand() instanceof Identifier) {
+            if(isUnboxedStore(unaryExpression.getOperand(), Types.INT)) {
+                int increment = (operator == UnaryOperator.postinc) ? 1 : -1;
+                unboxedIncrement(unaryExpression.getOperand(), increment, false);
+            }
+            else if(unaryExpression.getOperand() instanceof Identifier) {
                 Identifier identifier = (Identifier)unaryExpression.getOperand();
                 int slot = slotOf(identifier.getName());
 
-                commands += "aload " + slot + "\n";
-                commands += "invokevirtual java/lang/Integer/intValue()I\n";
-                commands += "dup\n";
-                commands += "ldc 1\n";
+                commands.append("aload " + slot + "\n");
+                commands.append("invokevirtual java/lang/Integer/intValue()I\n");
+                commands.append("dup\n");
+                commands.append("ldc 1\n");
 
                 if (operator == UnaryOperator.postinc)
-                    commands += "iadd\n";
+                    commands.append("iadd\n");
                 else
-                    commands += "isub\n";
+                    commands.append("isub\n");
 
-                commands += "invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;\n";
-                commands += "astore " + slot + "\n";
+                commands.append("invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;\n");
+                commands.append("astore " + slot + "\n");
             }
             else if(unaryExpression.getOperand() instanceof ListAccessByIndex) {
                 Expression instance = ((ListAccessByIndex) unaryExpression.getOperand()).getInstance();
                 Expression index = ((ListAccessByIndex) unaryExpression.getOperand()).getIndex();
-                Type memberType = unaryExpression.getOperand().accept(expressionTypeChecker);
+                Type memberType = expressionTypeChecker.typeOf(unaryExpression.getOperand());
+                ListType listType = (ListType) expressionTypeChecker.typeOf(instance);
 
-                commands += instance.accept(this);
-                commands += index.accept(this);
+                pushListElement(instance, listType, index);
 
-                commands += "invokevirtual List/getElement(I)Ljava/lang/Object;\n";
-                commands += "checkcast " + makeTypeSignature(memberType) + "\n";
-                commands += "invokevirtual java/lang/Integer/intValue()I\n";
+                commands.append(loadListElement(listType, getConstantListIndex(index), memberType));
 
-                commands += instance.accept(this);
-                commands += index.accept(this);
+                pushListElement(instance, listType, index);
 
-                commands += instance.accept(this);
-                commands += index.accept(this);
+                pushListElement(instance, listType, index);
 
-                commands += "invokevirtual List/getElement(I)Ljava/lang/Object;\n";
-                commands += "checkcast " + makeTypeSignature(memberType) + "\n";
-                commands += "invokevirtual java/lang/Integer/intValue()I\n";
-                commands += "ldc 1\n";
+                commands.append(loadListElement(listType, getConstantListIndex(index), memberType));
+                commands.append("ldc 1\n");
 
                 if (operator == UnaryOperator.postinc)
-                    commands += "iadd\n";
+                    commands.append("iadd\n");
                 else
-                    commands += "isub\n";
+                    commands.append("isub\n");
 
 
-                commands += "invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;\n";
-
-                commands += "invokevirtual List/setElement(ILjava/lang/Object;)V\n";
+                commands.append(storeListElement(listType, getConstantListIndex(index), memberType));
             }
             else if(unaryExpression.getOperand() instanceof ObjectOrListMemberAccess) {
                 Expression instance = ((ObjectOrListMemberAccess) unaryExpression.getOperand()).getInstance();
-                Type memberType = unaryExpression.getOperand().accept(expressionTypeChecker);
+                Type memberType = expressionTypeChecker.typeOf(unaryExpression.getOperand());
                 String memberName = ((ObjectOrListMemberAccess) unaryExpression.getOperand()).getMemberName().getName();
-                Type instanceType = instance.accept(expressionTypeChecker);
+                Type instanceType = expressionTypeChecker.typeOf(instance);
                 if(instanceType instanceof ListType) {
                     int index = 0;
                     ListType listType = (ListType)instanceType;
@@ -1025,87 +1583,72 @@ public class CodeGenerator extends Visitor<String> {
                         index++;
                     }
 
-                    commands += instance.accept(this);
-                    commands += "ldc " + index + "\n";
+                    pushListElement(instance, listType, index);
 
-                    commands += "invokevirtual List/getElement(I)Ljava/lang/Object;\n";
-                    commands += "checkcast " + makeTypeSignature(memberType) + "\n";
-                    commands += "invokevirtual java/lang/Integer/intValue()I\n";
+                    commands.append(loadListElement(listType, index, memberType));
 
-                    commands += instance.accept(this);
-                    commands += "ldc " + index + "\n";
+                    pushListElement(instance, listType, index);
 
-                    commands += instance.accept(this);
-                    commands += "ldc " + index + "\n";
+                    pushListElement(instance, listType, index);
 
-                    commands += "invokevirtual List/getElement(I)Ljava/lang/Object;\n";
-                    commands += "checkcast " + makeTypeSignature(memberType) + "\n";
-                    commands += "invokevirtual java/lang/Integer/intValue()I\n";
-                    commands += "ldc 1\n";
+                    commands.append(loadListElement(listType, index, memberType));
+                    commands.append("ldc 1\n");
 
                     if (operator == UnaryOperator.postinc)
-                        commands += "iadd\n";
+                        commands.append("iadd\n");
                     else
-                        commands += "isub\n";
-
+                        commands.append("isub\n");
 
-                    commands += "invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;\n";
 
-                    commands += "invokevirtual List/setElement(ILjava/lang/Object;)V\n";
+                    commands.append(storeListElement(listType, index, memberType));
                 }
                 else if(instanceType instanceof ClassType) {
                     String className = ((ClassType)instanceType).getClassName().getName();
-                    commands += instance.accept(this);
-                    commands += "getfield " + className + "/" + memberName + " L" + makeTypeSignature(memberType) + ";\n";
-                    commands += "invokevirtual java/lang/Integer/intValue()I\n";
+                    instance.accept(this);
+                    commands.append("getfield " + className + "/" + memberName + " " + makeValueSignature(memberType) + "\n");
+                    commands.append("invokevirtual java/lang/Integer/intValue()I\n");
 
-                    commands += instance.accept(this);
-                    commands += "dup\n";
-                    commands += "getfield " + className + "/" + memberName + " L" + makeTypeSignature(memberType) + ";\n";
-                    commands += "invokevirtual java/lang/Integer/intValue()I\n";
+                    instance.accept(this);
+                    commands.append("dup\n");
+                    commands.append("getfield " + className + "/" + memberName + " " + makeValueSignature(memberType) + "\n");
+                    commands.append("invokevirtual java/lang/Integer/intValue()I\n");
 
-                    commands += "ldc 1\n";
+                    commands.append("ldc 1\n");
 
                     if (operator == UnaryOperator.postinc)
-                        commands += "iadd\n";
+                        commands.append("iadd\n");
                     else
-                        commands += "isub\n";
+                        commands.append("isub\n");
 
-                    commands += "invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;\n";
-                    commands += "putfield " + className + "/" + memberName + " L" + makeTypeSignature(memberType) + ";\n";
+                    commands.append("invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;\n");
+                    commands.append("putfield " + className + "/" + memberName + " " + makeValueSignature(memberType) + "\n");
                 }
             }
         }
-        return commands;
+        return null;
     }
 
     @Override
     public String visit(ObjectOrListMemberAccess objectOrListMemberAccess) {
-        Type memberType = objectOrListMemberAccess.accept(expressionTypeChecker);
-        Type instanceType = objectOrListMemberAccess.getInstance().accept(expressionTypeChecker);
+        Type memberType = expressionTypeChecker.typeOf(objectOrListMemberAccess);
+        Type instanceType = expressionTypeChecker.typeOf(objectOrListMemberAccess.getInstance());
         String memberName = objectOrListMemberAccess.getMemberName().getName();
-        String commands = "";
         if(instanceType instanceof ClassType) {
             String className = ((ClassType) instanceType).getClassName().getName();
-            try {
-                SymbolTable classSymbolTable = ((ClassSymbolTableItem) SymbolTable.root.getItem(ClassSymbolTableItem.START_KEY + className, true)).getClassSymbolTable();
-                try {
-                    classSymbolTable.getItem(FieldSymbolTableItem.START_KEY + memberName, true);
-                    commands += objectOrListMemberAccess.getInstance().accept(this);
-                    commands += "getfield " + className + "/" + memberName + " L" + makeTypeSignature(memberType) + ";\n";
-                    if (memberType instanceof IntType)
-                        commands += "invokevirtual java/lang/Integer/intValue()I\n";
-                    if (memberType instanceof BoolType)
-                        commands += "invokevirtual java/lang/Boolean/booleanValue()Z\n";
-
-                } catch (ItemNotFoundException memberIsMethod) {
-                    commands += "new Fptr\n";
-                    commands += "dup\n";
-                    commands += objectOrListMemberAccess.getInstance().accept(this);
-                    commands += "ldc \"" + memberName + "\"\n";
-                    commands += "invokespecial Fptr/<init>(Ljava/lang/Object;Ljava/lang/String;)V\n";
-                }
-            } catch (ItemNotFoundException classNotFound) { // never reached
+            if(objectOrListMemberAccess.getMemberName().getSymbolTableItem() instanceof FieldSymbolTableItem) {
+                objectOrListMemberAccess.getInstance().accept(this);
+                commands.append("getfield " + className + "/" + memberName + " " + makeValueSignature(memberType) + "\n");
+                if (memberType instanceof IntType && !options.isUnboxed())
+                    commands.append("invokevirtual java/lang/Integer/intValue()I\n");
+                if (memberType instanceof BoolType && !options.isUnboxed())
+                    commands.append("invokevirtual java/lang/Boolean/booleanValue()Z\n");
+            }
+            else {
+                commands.append("new Fptr\n");
+                commands.append("dup\n");
+                objectOrListMemberAccess.getInstance().accept(this);
+                commands.append("ldc \"" + memberName + "\"\n");
+                commands.append("invokespecial Fptr/<init>(Ljava/lang/Object;Ljava/lang/String;)V\n");
             }
         }
         else if(instanceType instanceof ListType) {
@@ -1120,189 +1663,236 @@ public class CodeGenerator extends Visitor<String> {
                     break;
                 index++;
             }
-            commands += objectOrListMemberAccess.getInstance().accept(this);
-            commands += "ldc " + index + "\n";
-            commands += "invokevirtual List/getElement(I)Ljava/lang/Object;\n";
-
-            commands += "checkcast " + makeTypeSignature(memberType) + "\n";
-
-            if (memberType instanceof IntType)
-                commands += "invokevirtual java/lang/Integer/intValue()I\n";
-            if (memberType instanceof BoolType)
-                commands += "invokevirtual java/lang/Boolean/booleanValue()Z\n";
+            loadKnownListElement(objectOrListMemberAccess.getInstance(), listType, index, memberType);
         }
-        return commands;
+        return null;
     }
 
     @Override
     public String visit(Identifier identifier) {
-        String commands = "";
         String name = identifier.getName();
         int slotNum = slotOf(name);
-        Type type = identifier.accept(expressionTypeChecker);
-        commands += "aload " + slotNum + "\n";
+        Type type = expressionTypeChecker.typeOf(identifier);
+        if(isPrimitiveSlot(name)) {
+            commands.append("iload " + slotNum + "\n");
+            return null;
+        }
+        commands.append("aload " + slotNum + "\n");
 
         if(type instanceof IntType)
-            commands += "invokevirtual java/lang/Integer/intValue()I\n";
+            commands.append("invokevirtual java/lang/Integer/intValue()I\n");
         if(type instanceof BoolType)
-            commands += "invokevirtual java/lang/Boolean/booleanValue()Z\n";
-        return commands;
+            commands.append("invokevirtual java/lang/Boolean/booleanValue()Z\n");
+        return null;
     }
 
     @Override
     public String visit(ListAccessByIndex listAccessByIndex) {
-        String commands = "";
-        Type type = listAccessByIndex.accept(expressionTypeChecker);
-        commands += listAccessByIndex.getInstance().accept(this);
-        commands += listAccessByIndex.getIndex().accept(this);
-        commands += "invokevirtual List/getElement(I)Ljava/lang/Object;\n";
+        Type type = expressionTypeChecker.typeOf(listAccessByIndex);
+        ListType listType = (ListType) expressionTypeChecker.typeOf(listAccessByIndex.getInstance());
+        if(isKnownListIndex(listType, listAccessByIndex.getIndex())) {
+            int index = ((IntValue) listAccessByIndex.getIndex()).getConstant();
+            loadKnownListElement(listAccessByIndex.getInstance(), listType, index, type);
+            return null;
+        }
+        pushListElement(listAccessByIndex.getInstance(), listType, listAccessByIndex.getIndex());
+        commands.append(loadListElement(listType, getConstantListIndex(listAccessByIndex.getIndex()), type));
+        return null;
+    }
+
+    private void methodArgument(Expression arg) {
+        Type argType = expressionTypeChecker.typeOf(arg);
+
+        arg.accept(this);
 
-        commands += "checkcast " + makeTypeSignature(type) + "\n";
+        if(argType instanceof IntType && !options.isUnboxed())
+            commands.append("invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;\n");
 
-        if (type instanceof IntType)
-            commands += "invokevirtual java/lang/Integer/intValue()I\n";
-        if (type instanceof BoolType)
-            commands += "invokevirtual java/lang/Boolean/booleanValue()Z\n";
-        return commands;
+        if(argType instanceof BoolType && !options.isUnboxed())
+            commands.append("invokestatic java/lang/Boolean/valueOf(Z)Ljava/lang/Boolean;\n");
+
+        if(argType instanceof ListType)
+            commands.append("invokevirtual List/copy()LList;\n");
+    }
+
+    private void directMethodCall(MethodCall methodCall, MethodSymbolTableItem method) {
+        ObjectOrListMemberAccess memberAccess = (ObjectOrListMemberAccess) methodCall.getInstance();
+        String className = ((ClassType) expressionTypeChecker.typeOf(memberAccess.getInstance())).getClassName().getName();
+        Type retType = method.getReturnType();
+        memberAccess.getInstance().accept(this);
+
+        for(Expression arg : methodCall.getArgs())
+            methodArgument(arg);
+
+        commands.append("invokevirtual " + className + "/" + method.getName() + makeMethodSignature(method.getArgTypes(), retType) + "\n");
+
+        if (retType instanceof IntType && !options.isUnboxed())
+            commands.append("invokevirtual java/lang/Integer/intValue()I\n");
+        if (retType instanceof BoolType && !options.isUnboxed())
+            commands.append("invokevirtual java/lang/Boolean/booleanValue()Z\n");
+    }
+
+    private void fptrCallSiteCall(MethodCall methodCall) {
+        FptrType fptrType = (FptrType) expressionTypeChecker.typeOf(methodCall.getInstance());
+        Type retType = fptrType.getReturnType();
+        String signature = "(LFptr;" + makeMethodSignature(fptrType.getArgumentsTypes(), retType).substring(1);
+        String className = currentClass.getClassName().getName();
+        ArrayList<String> classCallSites = fptrCallSiteTypes.computeIfAbsent(className, name -> new ArrayList<>());
+        String callSiteName = getFptrCallSiteName(className, classCallSites.size());
+        classCallSites.add(signature);
+
+        commands.append("getstatic " + FPTR_CALL_SITES_CLASS + "/" + callSiteName + " Ljava/lang/invoke/MethodHandle;\n");
+        methodCall.getInstance().accept(this);
+        for(Expression arg : methodCall.getArgs())
+            methodArgument(arg);
+        commands.append("invokevirtual java/lang/invoke/MethodHandle/invokeExact" + signature + "\n");
+
+        if (retType instanceof IntType && !options.isUnboxed())
+            commands.append("invokevirtual java/lang/Integer/intValue()I\n");
+        if (retType instanceof BoolType && !options.isUnboxed())
+            commands.append("invokevirtual java/lang/Boolean/booleanValue()Z\n");
     }
 
     @Override
     public String visit(MethodCall methodCall) {
-        String commands = "";
-        int tempIndex = slotOf("");
+        MethodSymbolTableItem directCallTarget = getDirectCallTarget(methodCall);
+        if(directCallTarget != null) {
+            directMethodCall(methodCall, directCallTarget);
+            return null;
+        }
+        if(options.isFptrCallSites()) {
+            fptrCallSiteCall(methodCall);
+            return null;
+        }
         ArrayList<Expression> args = methodCall.getArgs();
-        Type retType = ((FptrType) methodCall.getInstance().accept(expressionTypeChecker)).getReturnType();
-        commands += methodCall.getInstance().accept(this);
-        commands += "new java/util/ArrayList\n";
-        commands += "dup\n";
-        commands += "invokespecial java/util/ArrayList/<init>()V\n";
-        commands += "astore " + tempIndex + "\n";
-
+        Type retType = ((FptrType) expressionTypeChecker.typeOf(methodCall.getInstance())).getReturnType();
+        methodCall.getInstance().accept(this);
+        commands.append("ldc " + args.size() + "\n");
+        commands.append("anewarray java/lang/Object\n");
 
+        int argIndex = 0;
         for(Expression arg : args){
-            commands += "aload " + tempIndex + "\n";
+            commands.append("dup\n");
+            commands.append("ldc " + argIndex + "\n");
 
-            Type argType = arg.accept(expressionTypeChecker);
+            Type argType = expressionTypeChecker.typeOf(arg);
 
-            if(argType instanceof ListType) {
-                commands += "new List\n";
-                commands += "dup\n";
-            }
-
-            commands += arg.accept(this);
+            arg.accept(this);
 
             if(argType instanceof IntType)
-                commands += "invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;\n";
+                commands.append("invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;\n");
 
             if(argType instanceof BoolType)
-                commands += "invokestatic java/lang/Boolean/valueOf(Z)Ljava/lang/Boolean;\n";
+                commands.append("invokestatic java/lang/Boolean/valueOf(Z)Ljava/lang/Boolean;\n");
 
-            if(argType instanceof ListType) {
-                commands += "invokespecial List/<init>(LList;)V\n";
-            }
+            if(argType instanceof ListType)
+                commands.append("invokevirtual List/copy()LList;\n");
 
-            commands += "invokevirtual java/util/ArrayList/add(Ljava/lang/Object;)Z\n";
-            commands += "pop\n";
+            commands.append("aastore\n");
+            argIndex++;
         }
 
-        commands += "aload " + tempIndex + "\n";
-        commands += "invokevirtual Fptr/invoke(Ljava/util/ArrayList;)Ljava/lang/Object;\n";
+        commands.append("invokevirtual Fptr/invoke([Ljava/lang/Object;)Ljava/lang/Object;\n");
 
         if(!(retType instanceof NullType))
-            commands += "checkcast " + makeTypeSignature(retType) + "\n";
+            commands.append("checkcast " + makeTypeSignature(retType) + "\n");
 
         if (retType instanceof IntType)
-            commands += "invokevirtual java/lang/Integer/intValue()I\n";
+            commands.append("invokevirtual java/lang/Integer/intValue()I\n");
         if (retType instanceof BoolType)
-            commands += "invokevirtual java/lang/Boolean/booleanValue()Z\n";
-        return commands;
+            commands.append("invokevirtual java/lang/Boolean/booleanValue()Z\n");
+        return null;
     }
 
     @Override
     public String visit(NewClassInstance newClassInstance) {
-        String commands = "";
         String className = newClassInstance.getClassType().getClassName().getName();
         String argsSignature = "";
         ArrayList<Expression> args = newClassInstance.getArgs();
 
-        commands += "new " + className + "\n";
-        commands += "dup\n";
+        commands.append("new " + className + "\n");
+        commands.append("dup\n");
         for(Expression arg : args){
-            commands += arg.accept(this);
-            Type argType = arg.accept(expressionTypeChecker);
-            argsSignature += "L" + makeTypeSignature(argType) + ";";
-            if(argType instanceof IntType)
-                commands += "invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;\n";
-            if(argType instanceof BoolType)
-                commands += "invokestatic java/lang/Boolean/valueOf(Z)Ljava/lang/Boolean;\n";
+            arg.accept(this);
+            Type argType = expressionTypeChecker.typeOf(arg);
+            argsSignature += makeValueSignature(argType);
+            if(argType instanceof IntType && !options.isUnboxed())
+                commands.append("invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;\n");
+            if(argType instanceof BoolType && !options.isUnboxed())
+                commands.append("invokestatic java/lang/Boolean/valueOf(Z)Ljava/lang/Boolean;\n");
         }
-        commands += "invokespecial " + className + "/<init>(" + argsSignature + ")V\n";
-        return commands;
+        commands.append("invokespecial " + className + "/<init>(" + argsSignature + ")V\n");
+        return null;
     }
 
     @Override
     public String visit(ThisClass thisClass) {
-        String commands = "";
-        commands += "aload 0\n";
-        return commands;
+        commands.append("aload 0\n");
+        return null;
     }
 
     @Override
     public String visit(ListValue listValue) {
-        String commands = "";
-        int tempIndex = slotOf("");
-        commands += "new List\n";
-        commands += "dup\n";
-        commands += "new java/util/ArrayList\n";
-        commands += "dup\n";
-        commands += "invokespecial java/util/ArrayList/<init>()V\n";
-        commands += "astore " + tempIndex + "\n";
+        ListType listType = (ListType) expressionTypeChecker.typeOf(listValue);
+        String recordClass = getListRecordClass(listType);
+        if(recordClass != null) {
+            commands.append("new " + recordClass + "\n");
+            commands.append("dup\n");
+            commands.append("invokespecial " + recordClass + "/<init>()V\n");
+            ArrayList<Expression> elements = listValue.getElements();
+            for(int i = 0; i < elements.size(); i++) {
+                commands.append("dup\n");
+                elements.get(i).accept(this);
+                if(expressionTypeChecker.typeOf(elements.get(i)) instanceof ListType)
+                    commands.append("invokevirtual List/copy()LList;\n");
+                commands.append("putfield " + getListRecordField(listType, i) + "\n");
+            }
+            return null;
+        }
+        boolean isPacked = getPackedElementType(listType) != null;
+        commands.append("new List\n");
+        commands.append("dup\n");
+        commands.append(newListArray(listType));
         ArrayList<Expression> elements = listValue.getElements();
-        for (Expression element: elements) {
-            commands += "aload " + tempIndex + "\n";
-            commands += element.accept(this);
-            Type elementType = element.accept(expressionTypeChecker);
-            if(elementType instanceof IntType)
-                commands += "invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;\n";
-            if(elementType instanceof BoolType)
-                commands += "invokestatic java/lang/Boolean/valueOf(Z)Ljava/lang/Boolean;\n";
-
-            commands += "invokevirtual java/util/ArrayList/add(Ljava/lang/Object;)Z\n";
-            commands += "pop\n";
+        for (int i = 0; i < elements.size(); i++) {
+            commands.append("dup\n");
+            commands.append("ldc " + i + "\n");
+            elements.get(i).accept(this);
+            Type elementType = expressionTypeChecker.typeOf(elements.get(i));
+            if(elementType instanceof IntType && !isPacked)
+                commands.append("invokestatic java/lang/Integer/valueOf(I)Ljava/lang/Integer;\n");
+            if(elementType instanceof BoolType && !isPacked)
+                commands.append("invokestatic java/lang/Boolean/valueOf(Z)Ljava/lang/Boolean;\n");
+            commands.append(getListArrayStore(listType));
         }
-        commands += "aload " + tempIndex + "\n";
-        commands += "invokespecial List/<init>(Ljava/util/ArrayList;)V\n";
-        return commands;
+        commands.append(getListConstructor(listType));
+        return null;
     }
 
     @Override
     public String visit(NullValue nullValue) {
-        String commands = "";
-        commands += "aconst_null\n";
-        return commands;
+        commands.append("aconst_null\n");
+        return null;
     }
 
     @Override
     public String visit(IntValue intValue) {
-        String commands = "";
-        commands += "ldc " + intValue.getConstant() +"\n";
-        return commands;
+        commands.append("ldc " + intValue.getConstant() +"\n");
+        return null;
     }
 
     @Override
     public String visit(BoolValue boolValue) {
-        String commands = "";
         if(boolValue.getConstant())
-            commands += "ldc " + "1\n";
+            commands.append("ldc " + "1\n");
         else
-            commands += "ldc " + "0\n";
-        return commands;
+            commands.append("ldc " + "0\n");
+        return null;
     }
 
     @Override
     public String visit(StringValue stringValue) {
-        String commands = "";
-        commands += "ldc \"" + stringValue.getConstant() + "\"\n";
-        return commands;
+        commands.append("ldc \"" + stringValue.getConstant() + "\"\n");
+        return null;
     }
 }
\ No newline at end of file
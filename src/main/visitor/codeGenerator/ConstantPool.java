@@ -0,0 +1,105 @@
+package main.visitor.codeGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+//constant pool of a class file, every constant is added once and shared by its users
+public class ConstantPool {
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int FIELD_REF = 9;
+    private static final int METHOD_REF = 10;
+    private static final int INTERFACE_METHOD_REF = 11;
+    private static final int NAME_AND_TYPE = 12;
+
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream entries = new DataOutputStream(bytes);
+    private int size = 1;
+
+    public int addUtf8(String value) {
+        String key = "U" + value;
+        Integer index = indexes.get(key);
+        if(index != null)
+            return index;
+        try {
+            entries.writeByte(UTF8);
+            entries.writeUTF(value);
+        } catch (IOException e) {//never reached
+
+        }
+        return register(key);
+    }
+
+    public int addInteger(int value) {
+        String key = "I" + value;
+        Integer index = indexes.get(key);
+        if(index != null)
+            return index;
+        try {
+            entries.writeByte(INTEGER);
+            entries.writeInt(value);
+        } catch (IOException e) {//never reached
+
+        }
+        return register(key);
+    }
+
+    public int addClass(String internalName) {
+        return addReference(CLASS, "C" + internalName, addUtf8(internalName), -1);
+    }
+
+    public int addString(String value) {
+        return addReference(STRING, "S" + value, addUtf8(value), -1);
+    }
+
+    public int addFieldRef(String owner, String name, String descriptor) {
+        return addMemberRef(FIELD_REF, owner, name, descriptor);
+    }
+
+    public int addMethodRef(String owner, String name, String descriptor) {
+        return addMemberRef(METHOD_REF, owner, name, descriptor);
+    }
+
+    public int addInterfaceMethodRef(String owner, String name, String descriptor) {
+        return addMemberRef(INTERFACE_METHOD_REF, owner, name, descriptor);
+    }
+
+    private int addMemberRef(int tag, String owner, String name, String descriptor) {
+        int classIndex = addClass(owner);
+        int nameAndTypeIndex = addReference(NAME_AND_TYPE, "N" + name + " " + descriptor, addUtf8(name), addUtf8(descriptor));
+        return addReference(tag, tag + owner + "." + name + " " + descriptor, classIndex, nameAndTypeIndex);
+    }
+
+    private int addReference(int tag, String key, int first, int second) {
+        Integer index = indexes.get(key);
+        if(index != null)
+            return index;
+        try {
+            entries.writeByte(tag);
+            entries.writeShort(first);
+            if(second != -1)
+                entries.writeShort(second);
+        } catch (IOException e) {//never reached
+
+        }
+        return register(key);
+    }
+
+    private int register(String key) {
+        int index = size;
+        indexes.put(key, index);
+        size++;
+        return index;
+    }
+
+    public void write(DataOutputStream output) throws IOException {
+        output.writeShort(size);
+        bytes.writeTo(output);
+    }
+}
@@ -0,0 +1,56 @@
+package main.visitor.codeGenerator;
+
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.declaration.variableDec.VarDeclaration;
+import main.ast.types.Type;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+//local variable slots of one method: arguments and locals get fixed slots after this, temporaries come after them
+public class LocalSlotAllocator {
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final Map<String, Type> types = new HashMap<>();
+    private final Deque<Integer> freeTemps = new ArrayDeque<>();
+    private int nextTemp;
+
+    public LocalSlotAllocator(MethodDeclaration methodDeclaration) {
+        int slot = 1;
+        for(VarDeclaration arg : methodDeclaration.getArgs())
+            add(arg, slot++);
+        for(VarDeclaration var : methodDeclaration.getLocalVars())
+            add(var, slot++);
+        this.nextTemp = slot;
+    }
+
+    private void add(VarDeclaration varDeclaration, int slot) {
+        String name = varDeclaration.getVarName().getName();
+        if(slots.containsKey(name))
+            return;
+        slots.put(name, slot);
+        types.put(name, varDeclaration.getType());
+    }
+
+    public int getSlot(String name) {
+        Integer slot = slots.get(name);
+        return slot == null ? 0 : slot;
+    }
+
+    //declared type of an argument or local, null for any other name
+    public Type getType(String name) {
+        return types.get(name);
+    }
+
+    public int allocateTemp() {
+        if(!freeTemps.isEmpty())
+            return freeTemps.pop();
+        return nextTemp++;
+    }
+
+    //the temp may be handed out again, its value must not be read after this
+    public void releaseTemp(int slot) {
+        freeTemps.push(slot);
+    }
+}
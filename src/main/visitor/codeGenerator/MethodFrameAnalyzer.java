@@ -0,0 +1,216 @@
+package main.visitor.codeGenerator;
+
+import java.util.*;
+
+//computes .limit stack and .limit locals of a method from its jasmin instructions
+public class MethodFrameAnalyzer {
+    private final List<String[]> instructions = new ArrayList<>();
+    private final Map<String, Integer> labelIndexes = new HashMap<>();
+    private final List<String> handlerLabels = new ArrayList<>();
+    private int maxStack;
+    private int maxLocals;
+
+    public MethodFrameAnalyzer(String header, List<String> commands) {
+        for(String command : commands)
+            for(String line : command.split("\n"))
+                addLine(line.trim());
+        this.maxLocals = getArgumentsSize(header);
+        this.maxStack = 0;
+        analyze();
+    }
+
+    private void addLine(String line) {
+        if(line.isEmpty())
+            return;
+        if(line.startsWith(".catch")) {
+            String[] parts = line.split("\\s+");
+            handlerLabels.add(parts[parts.length - 1]);
+        }
+        else if(line.endsWith(":"))
+            labelIndexes.put(line.substring(0, line.length() - 1), instructions.size());
+        else if(!line.startsWith("."))
+            instructions.add(line.split("\\s+"));
+    }
+
+    public int getMaxStack() {
+        return maxStack;
+    }
+
+    public int getMaxLocals() {
+        return maxLocals;
+    }
+
+    private static int getArgumentsSize(String header) {
+        String descriptor = header.substring(header.indexOf('('));
+        int size = getDescriptorArgumentsSize(descriptor);
+        if(!header.contains(" static "))
+            size++;
+        return size;
+    }
+
+    private static int getDescriptorArgumentsSize(String descriptor) {
+        int size = 0;
+        int index = 1;
+        while(descriptor.charAt(index) != ')') {
+            char c = descriptor.charAt(index);
+            while(c == '[') {
+                index++;
+                c = descriptor.charAt(index);
+            }
+            if(c == 'L')
+                index = descriptor.indexOf(';', index);
+            size += (c == 'J' || c == 'D') ? 2 : 1;
+            index++;
+        }
+        return size;
+    }
+
+    private static int getDescriptorReturnSize(String descriptor) {
+        char c = descriptor.charAt(descriptor.indexOf(')') + 1);
+        if(c == 'V')
+            return 0;
+        return (c == 'J' || c == 'D') ? 2 : 1;
+    }
+
+    private void analyze() {
+        int[] heights = new int[instructions.size() + 1];
+        Arrays.fill(heights, -1);
+        Deque<Integer> workList = new ArrayDeque<>();
+        push(heights, workList, 0, 0);
+        for(String handlerLabel : handlerLabels)
+            push(heights, workList, labelIndexes.get(handlerLabel), 1);
+
+        while(!workList.isEmpty()) {
+            int index = workList.pop();
+            if(index >= instructions.size())
+                continue;
+            String[] instruction = instructions.get(index);
+            String opcode = instruction[0];
+            int height = heights[index] + getStackEffect(instruction);
+            maxStack = Math.max(maxStack, Math.max(height, heights[index]));
+            updateMaxLocals(instruction);
+
+            if(opcode.equals("goto")) {
+                push(heights, workList, labelIndexes.get(instruction[1]), height);
+                continue;
+            }
+            if(opcode.startsWith("if")) {
+                push(heights, workList, labelIndexes.get(instruction[1]), height);
+            }
+            if(opcode.endsWith("return") || opcode.equals("athrow"))
+                continue;
+            push(heights, workList, index + 1, height);
+        }
+    }
+
+    private void push(int[] heights, Deque<Integer> workList, int index, int height) {
+        if(heights[index] != -1)
+            return;
+        heights[index] = height;
+        workList.push(index);
+    }
+
+    private void updateMaxLocals(String[] instruction) {
+        String opcode = instruction[0];
+        if(opcode.equals("iinc") || opcode.matches("[ailfd](load|store)"))
+            maxLocals = Math.max(maxLocals, Integer.parseInt(instruction[1]) + 1);
+        else if(opcode.matches("[ailfd](load|store)_\\d"))
+            maxLocals = Math.max(maxLocals, opcode.charAt(opcode.length() - 1) - '0' + 1);
+    }
+
+    private static int getStackEffect(String[] instruction) {
+        String opcode = instruction[0];
+        switch (opcode) {
+            case "invokevirtual":
+            case "invokespecial":
+            case "invokeinterface": {
+                String descriptor = instruction[1].substring(instruction[1].indexOf('('));
+                return getDescriptorReturnSize(descriptor) - getDescriptorArgumentsSize(descriptor) - 1;
+            }
+            case "invokestatic": {
+                String descriptor = instruction[1].substring(instruction[1].indexOf('('));
+                return getDescriptorReturnSize(descriptor) - getDescriptorArgumentsSize(descriptor);
+            }
+            case "getstatic":
+                return 1;
+            case "putstatic":
+                return -1;
+            case "putfield":
+                return -2;
+            case "getfield":
+            case "checkcast":
+            case "anewarray":
+            case "newarray":
+            case "instanceof":
+            case "arraylength":
+            case "ineg":
+            case "iinc":
+            case "goto":
+            case "return":
+            case "nop":
+                return 0;
+            case "ldc":
+            case "ldc_w":
+            case "new":
+            case "aconst_null":
+            case "bipush":
+            case "sipush":
+            case "iload":
+            case "aload":
+            case "dup":
+            case "dup_x1":
+            case "dup_x2":
+                return 1;
+            case "dup2":
+                return 2;
+            case "istore":
+            case "astore":
+            case "pop":
+            case "ireturn":
+            case "areturn":
+            case "athrow":
+            case "iadd":
+            case "isub":
+            case "imul":
+            case "idiv":
+            case "irem":
+            case "iand":
+            case "ior":
+            case "ixor":
+            case "ifeq":
+            case "ifne":
+            case "iflt":
+            case "ifge":
+            case "ifgt":
+            case "ifle":
+            case "ifnull":
+            case "ifnonnull":
+            case "monitorenter":
+            case "monitorexit":
+            case "iaload":
+            case "aaload":
+            case "baload":
+                return -1;
+            case "pop2":
+            case "if_icmpeq":
+            case "if_icmpne":
+            case "if_icmplt":
+            case "if_icmpge":
+            case "if_icmpgt":
+            case "if_icmple":
+            case "if_acmpeq":
+            case "if_acmpne":
+                return -2;
+            case "iastore":
+            case "aastore":
+            case "bastore":
+                return -3;
+            default:
+                if(opcode.matches("iconst_(m1|\\d)|[ai]load_\\d"))
+                    return 1;
+                if(opcode.matches("[ai]store_\\d"))
+                    return -1;
+                throw new IllegalArgumentException("Unknown instruction " + opcode);
+        }
+    }
+}
@@ -23,6 +23,9 @@ public class NameAnalyzer {
         this.linkParentSymbolTables();
         NameChecker nameChecker = new NameChecker(classHierarchy);
         this.program.accept(nameChecker);
+        NameBinder nameBinder = new NameBinder();
+        this.program.accept(nameBinder);
+        SymbolTable.root.freeze();
     }
 
     private void linkParentSymbolTables() {
@@ -44,6 +47,14 @@ public class NameAnalyzer {
                 thisClassSTI.getClassSymbolTable().pre = parentSTI.getClassSymbolTable();
             } catch (ItemNotFoundException | GraphDoesNotContainNodeException ignored) { }
         }
+        classHierarchy.freeze();
+        boolean hasCyclicChains = false;
+        for (ClassDeclaration classDeclaration : this.program.getClasses()) {
+            if (classDeclaration.getParentClassName() != null && classHierarchy.isSecondNodeAncestorOf(
+                    classDeclaration.getParentClassName().getName(), classDeclaration.getClassName().getName()))
+                hasCyclicChains = true;
+        }
+        SymbolTable.root.setHasCyclicChains(hasCyclicChains);
         this.classHierarchy = classHierarchy;
     }
 
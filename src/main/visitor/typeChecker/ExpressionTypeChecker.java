@@ -14,6 +14,7 @@ import main.ast.nodes.expression.values.primitive.StringValue;
 import main.ast.types.NoType;
 import main.ast.types.NullType;
 import main.ast.types.Type;
+import main.ast.types.Types;
 import main.ast.types.functionPointer.FptrType;
 import main.ast.types.list.ListNameType;
 import main.ast.types.list.ListType;
@@ -28,18 +29,32 @@ import main.symbolTable.items.ClassSymbolTableItem;
 import main.symbolTable.items.FieldSymbolTableItem;
 import main.symbolTable.items.LocalVariableSymbolTableItem;
 import main.symbolTable.items.MethodSymbolTableItem;
+import main.symbolTable.items.SymbolTableItem;
 import main.symbolTable.utils.graph.Graph;
 import main.visitor.Visitor;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 public class ExpressionTypeChecker extends Visitor<Type> {
+    private static final int MAX_CACHED_SUBTYPE_RESULTS = 4096;
+
     private final Graph<String> classHierarchy;
     private ClassDeclaration currentClass;
+    private ClassType currentClassType;
     private MethodDeclaration currentMethod;
     private int typeValidationNumberOfErrors;
     private boolean seenNoneLvalue = false;
     private boolean isInMethodCallStmt = false;
+    //structurally equal list and fptr types share an id, each type node is described once
+    private final Map<Type, Integer> structureIds = new IdentityHashMap<>();
+    private final Map<String, Integer> structureIdsByDescription = new HashMap<>();
+    //results of structural list and fptr comparisons by the ids of both types, cleared once it is full
+    private final Map<Long, Boolean> subtypeResults = new HashMap<>();
+    //refineType results by the identity of the declared type, there is at most one per type node of the program
+    private final Map<Type, Type> refinedTypes = new IdentityHashMap<>();
 
     public ExpressionTypeChecker(Graph<String> classHierarchy) {
         this.classHierarchy = classHierarchy;
@@ -47,6 +62,7 @@ public class ExpressionTypeChecker extends Visitor<Type> {
 
     public void setCurrentClass(ClassDeclaration currentClass) {
         this.currentClass = currentClass;
+        this.currentClassType = new ClassType(currentClass.getClassName());
     }
 
     public void setCurrentMethod(MethodDeclaration currentMethod) {
@@ -71,7 +87,7 @@ public class ExpressionTypeChecker extends Visitor<Type> {
         if(first instanceof NoType)
             return true;
         else if(first instanceof IntType || first instanceof BoolType || first instanceof StringType)
-            return first.toString().equals(second.toString());
+            return first == second;
         else if(first instanceof NullType)
             return second instanceof NullType || second instanceof FptrType || second instanceof ClassType;
         else if(first instanceof ClassType) {
@@ -79,7 +95,50 @@ public class ExpressionTypeChecker extends Visitor<Type> {
                 return false;
             return this.classHierarchy.isSecondNodeAncestorOf(((ClassType) first).getClassName().getName(), ((ClassType) second).getClassName().getName());
         }
-        else if(first instanceof FptrType) {
+        else if(first instanceof FptrType || first instanceof ListType) {
+            if(!(second instanceof FptrType || second instanceof ListType))
+                return false;
+            Long key = ((long) structureId(first) << 32) | structureId(second);
+            Boolean result = subtypeResults.get(key);
+            if(result != null)
+                return result;
+            result = isFirstStructuralSubTypeOfSecond(first, second);
+            if(subtypeResults.size() >= MAX_CACHED_SUBTYPE_RESULTS)
+                subtypeResults.clear();
+            subtypeResults.put(key, result);
+            return result;
+        }
+        return false;
+    }
+
+    private int structureId(Type type) {
+        Integer id = structureIds.get(type);
+        if(id != null)
+            return id;
+        StringBuilder description = new StringBuilder();
+        if(type instanceof ListType) {
+            description.append("list(");
+            for(ListNameType elementType : ((ListType) type).getElementsTypes())
+                description.append(describeStructure(elementType.getType())).append(',');
+        }
+        else {
+            description.append("func<").append(describeStructure(((FptrType) type).getReturnType()));
+            for(Type argumentType : ((FptrType) type).getArgumentsTypes())
+                description.append(',').append(describeStructure(argumentType));
+        }
+        id = structureIdsByDescription.computeIfAbsent(description.toString(), key -> structureIdsByDescription.size());
+        structureIds.put(type, id);
+        return id;
+    }
+
+    private String describeStructure(Type type) {
+        if(type instanceof FptrType || type instanceof ListType)
+            return "#" + structureId(type);
+        return type.toString();
+    }
+
+    private boolean isFirstStructuralSubTypeOfSecond(Type first, Type second) {
+        if(first instanceof FptrType) {
             if(!(second instanceof FptrType))
                 return false;
             Type firstRetType = ((FptrType) first).getReturnType();
@@ -107,11 +166,14 @@ public class ExpressionTypeChecker extends Visitor<Type> {
     }
 
     public Type refineType(Type type) {
+        Type refinedType = refinedTypes.get(type);
+        if(refinedType != null)
+            return refinedType;
         typeValidationNumberOfErrors = 0;
         this.checkTypeValidation(type, new NullValue());
-        if(typeValidationNumberOfErrors > 0)
-            return new NoType();
-        return type;
+        refinedType = typeValidationNumberOfErrors > 0 ? Types.NO_TYPE : type;
+        refinedTypes.put(type, refinedType);
+        return refinedType;
     }
 
     public void checkTypeValidation(Type type, Node node) {
@@ -178,94 +240,111 @@ public class ExpressionTypeChecker extends Visitor<Type> {
     }
 
     public boolean isLvalue(Expression expression) {
-        boolean prevIsCatchErrorsActive = Node.isCatchErrorsActive;
+        boolean prevIsCatchErrorsActive = Node.isCatchErrorsActive();
         boolean prevSeenNoneLvalue = this.seenNoneLvalue;
-        Node.isCatchErrorsActive = false;
+        Node.setCatchErrorsActive(false);
         this.seenNoneLvalue = false;
         expression.accept(this);
         boolean isLvalue = !this.seenNoneLvalue;
         this.seenNoneLvalue = prevSeenNoneLvalue;
-        Node.isCatchErrorsActive = prevIsCatchErrorsActive;
+        Node.setCatchErrorsActive(prevIsCatchErrorsActive);
         return isLvalue;
     }
 
+    //the type of every checked expression is kept on it, later passes read it back with typeOf
+    private Type record(Expression expression, Type type) {
+        expression.setType(type);
+        return type;
+    }
+
+    public Type typeOf(Expression expression) {
+        Type type = expression.getType();
+        if(type == null)
+            type = expression.accept(this);
+        return type;
+    }
+
     @Override
     public Type visit(BinaryExpression binaryExpression) {
+        return record(binaryExpression, check(binaryExpression));
+    }
+
+    private Type check(BinaryExpression binaryExpression) {
         this.seenNoneLvalue = true;
         BinaryOperator operator = binaryExpression.getBinaryOperator();
         Type firstType = binaryExpression.getFirstOperand().accept(this);
         Type secondType = binaryExpression.getSecondOperand().accept(this);
         if((operator == BinaryOperator.eq) || (operator == BinaryOperator.neq)) {
             if(firstType instanceof NoType && secondType instanceof NoType)
-                return new NoType();
+                return Types.NO_TYPE;
             else if((firstType instanceof NoType && secondType instanceof ListType) ||
                     (secondType instanceof NoType && firstType instanceof ListType)) {
                 UnsupportedOperandType exception = new UnsupportedOperandType(binaryExpression.getLine(), operator.name());
                 binaryExpression.addError(exception);
-                return new NoType();
+                return Types.NO_TYPE;
             }
             else if(firstType instanceof NoType || secondType instanceof NoType)
-                return new NoType();
+                return Types.NO_TYPE;
             if(firstType instanceof IntType || firstType instanceof BoolType || firstType instanceof StringType)
-                if(firstType.toString().equals(secondType.toString()))
-                    return new BoolType();
+                if(firstType == secondType)
+                    return Types.BOOL;
             if((firstType instanceof ClassType && secondType instanceof NullType) ||
                     (firstType instanceof NullType && secondType instanceof ClassType) ||
                     (firstType instanceof ClassType && secondType instanceof ClassType &&
                             ((ClassType)firstType).getClassName().getName().equals(((ClassType)secondType).getClassName().getName()))) {
-                return new BoolType();
+                return Types.BOOL;
             }
             if((firstType instanceof FptrType && secondType instanceof NullType) ||
                     (firstType instanceof NullType && secondType instanceof FptrType) ||
                     (firstType instanceof FptrType && secondType instanceof FptrType)) {
-                return new BoolType();
+                return Types.BOOL;
             }
             if(firstType instanceof NullType && secondType instanceof NullType)
-                return new BoolType();
+                return Types.BOOL;
         }
         if((operator == BinaryOperator.gt) || (operator == BinaryOperator.lt)) {
             if(firstType instanceof NoType && secondType instanceof NoType)
-                return new NoType();
+                return Types.NO_TYPE;
             else if((firstType instanceof NoType && !(secondType instanceof IntType)) ||
                     (secondType instanceof NoType && !(firstType instanceof IntType))) {
                 UnsupportedOperandType exception = new UnsupportedOperandType(binaryExpression.getLine(), operator.name());
                 binaryExpression.addError(exception);
-                return new NoType();
+                return Types.NO_TYPE;
             }
             else if(firstType instanceof NoType || secondType instanceof NoType)
-                return new NoType();
+                return Types.NO_TYPE;
             if((firstType instanceof IntType) && (secondType instanceof IntType))
-                return new BoolType();
+                return Types.BOOL;
         }
         if((operator == BinaryOperator.add) || (operator == BinaryOperator.sub) ||
                 (operator == BinaryOperator.mult) || (operator == BinaryOperator.div) || (operator == BinaryOperator.mod)) {
             if(firstType instanceof NoType && secondType instanceof NoType)
-                return new NoType();
+                return Types.NO_TYPE;
             else if((firstType instanceof NoType && !(secondType instanceof IntType)) ||
                     (secondType instanceof NoType && !(firstType instanceof IntType))) {
                 UnsupportedOperandType exception = new UnsupportedOperandType(binaryExpression.getLine(), operator.name());
                 binaryExpression.addError(exception);
-                return new NoType();
+                return Types.NO_TYPE;
             }
             else if(firstType instanceof NoType || secondType instanceof NoType)
-                return new NoType();
+                return Types.NO_TYPE;
             if((firstType instanceof IntType) && (secondType instanceof IntType))
-                return new IntType();
+                return Types.INT;
         }
 
         if((operator == BinaryOperator.or) || (operator == BinaryOperator.and)) {
             if(firstType instanceof NoType && secondType instanceof NoType)
-                return new NoType();
+                return Types.NO_TYPE;
             else if((firstType instanceof NoType && !(secondType instanceof BoolType)) ||
                     (secondType instanceof NoType && !(firstType instanceof BoolType))) {
                 UnsupportedOperandType exception = new UnsupportedOperandType(binaryExpression.getLine(), operator.name());
                 binaryExpression.addError(exception);
-                return new NoType();
+                return Types.NO_TYPE;
             }
             else if(firstType instanceof NoType || secondType instanceof NoType)
-                return new NoType();
+                return Types.NO_TYPE;
             if((firstType instanceof BoolType) && (secondType instanceof BoolType))
-                return new BoolType();
+                return Types.BOOL;
         }
         if(operator == BinaryOperator.assign) {
             boolean isFirstLvalue = this.isLvalue(binaryExpression.getFirstOperand());
@@ -274,45 +353,49 @@ public class ExpressionTypeChecker extends Visitor<Type> {
                 binaryExpression.addError(exception);
             }
             if(firstType instanceof NoType || secondType instanceof NoType) {
-                return new NoType();
+                return Types.NO_TYPE;
             }
             boolean isSubtype = this.isFirstSubTypeOfSecond(secondType, firstType);
             if(isSubtype) {
                 if(isFirstLvalue)
                     return secondType;
-                return new NoType();
+                return Types.NO_TYPE;
             }
             UnsupportedOperandType exception = new UnsupportedOperandType(binaryExpression.getLine(), operator.name());
             binaryExpression.addError(exception);
-            return new NoType();
+            return Types.NO_TYPE;
         }
         UnsupportedOperandType exception = new UnsupportedOperandType(binaryExpression.getLine(), operator.name());
         binaryExpression.addError(exception);
-        return new NoType();
+        return Types.NO_TYPE;
     }
 
     @Override
     public Type visit(UnaryExpression unaryExpression) {
+        return record(unaryExpression, check(unaryExpression));
+    }
+
+    private Type check(UnaryExpression unaryExpression) {
         this.seenNoneLvalue = true;
         Type operandType = unaryExpression.getOperand().accept(this);
         UnaryOperator operator = unaryExpression.getOperator();
         if(operator == UnaryOperator.not) {
             if(operandType instanceof NoType)
-                return new NoType();
+                return Types.NO_TYPE;
             if(operandType instanceof BoolType)
                 return operandType;
             UnsupportedOperandType exception = new UnsupportedOperandType(unaryExpression.getLine(), operator.name());
             unaryExpression.addError(exception);
-            return new NoType();
+            return Types.NO_TYPE;
         }
         else if(operator == UnaryOperator.minus) {
             if(operandType instanceof NoType)
-                return new NoType();
+                return Types.NO_TYPE;
             if(operandType instanceof IntType)
                 return operandType;
             UnsupportedOperandType exception = new UnsupportedOperandType(unaryExpression.getLine(), operator.name());
             unaryExpression.addError(exception);
-            return new NoType();
+            return Types.NO_TYPE;
         }
         else {
             boolean isOperandLvalue = this.isLvalue(unaryExpression.getOperand());
@@ -321,51 +404,64 @@ public class ExpressionTypeChecker extends Visitor<Type> {
                 unaryExpression.addError(exception);
             }
             if(operandType instanceof NoType)
-                return new NoType();
+                return Types.NO_TYPE;
             if(operandType instanceof IntType) {
                 if(isOperandLvalue)
                     return operandType;
-                return new NoType();
+                return Types.NO_TYPE;
             }
             UnsupportedOperandType exception = new UnsupportedOperandType(unaryExpression.getLine(), operator.name());
             unaryExpression.addError(exception);
-            return new NoType();
+            return Types.NO_TYPE;
         }
     }
 
     @Override
     public Type visit(ObjectOrListMemberAccess objectOrListMemberAccess) {
+        return record(objectOrListMemberAccess, check(objectOrListMemberAccess));
+    }
+
+    private Type check(ObjectOrListMemberAccess objectOrListMemberAccess) {
         boolean prevSeenNoneLvalue = this.seenNoneLvalue;
         Type instanceType = objectOrListMemberAccess.getInstance().accept(this);
         if(objectOrListMemberAccess.getInstance() instanceof ThisClass)
             this.seenNoneLvalue = prevSeenNoneLvalue;
         String memberName = objectOrListMemberAccess.getMemberName().getName();
         if(instanceType instanceof NoType)
-            return new NoType();
+            return Types.NO_TYPE;
         else if(instanceType instanceof ClassType) {
+            SymbolTableItem memberSymbolTableItem = objectOrListMemberAccess.getMemberName().getSymbolTableItem();
+            if(memberSymbolTableItem instanceof FieldSymbolTableItem)
+                return this.refineType(((FieldSymbolTableItem) memberSymbolTableItem).getType());
+            if(memberSymbolTableItem instanceof MethodSymbolTableItem) {
+                this.seenNoneLvalue = true;
+                return new FptrType(((MethodSymbolTableItem) memberSymbolTableItem).getArgTypes(), ((MethodSymbolTableItem) memberSymbolTableItem).getReturnType());
+            }
             String className = ((ClassType) instanceType).getClassName().getName();
             SymbolTable classSymbolTable;
             try {
                 classSymbolTable = ((ClassSymbolTableItem) SymbolTable.root.getItem(ClassSymbolTableItem.START_KEY + className, true)).getClassSymbolTable();
             } catch (ItemNotFoundException classNotFound) {
-                return new NoType();
+                return Types.NO_TYPE;
             }
             try {
                 FieldSymbolTableItem fieldSymbolTableItem = (FieldSymbolTableItem) classSymbolTable.getItem(FieldSymbolTableItem.START_KEY + memberName, true);
+                objectOrListMemberAccess.getMemberName().setSymbolTableItem(fieldSymbolTableItem);
                 return this.refineType(fieldSymbolTableItem.getType());
             } catch (ItemNotFoundException memberNotField) {
                 try {
                     MethodSymbolTableItem methodSymbolTableItem = (MethodSymbolTableItem) classSymbolTable.getItem(MethodSymbolTableItem.START_KEY + memberName, true);
+                    objectOrListMemberAccess.getMemberName().setSymbolTableItem(methodSymbolTableItem);
                     this.seenNoneLvalue = true;
                     return new FptrType(methodSymbolTableItem.getArgTypes(), methodSymbolTableItem.getReturnType());
                 } catch (ItemNotFoundException memberNotFound) {
                     if(memberName.equals(className)) {
                         this.seenNoneLvalue = true;
-                        return new FptrType(new ArrayList<>(), new NullType());
+                        return new FptrType(new ArrayList<>(), Types.NULL);
                     }
                     MemberNotAvailableInClass exception = new MemberNotAvailableInClass(objectOrListMemberAccess.getLine(), memberName, className);
                     objectOrListMemberAccess.addError(exception);
-                    return new NoType();
+                    return Types.NO_TYPE;
                 }
             }
         }
@@ -377,33 +473,44 @@ public class ExpressionTypeChecker extends Visitor<Type> {
             }
             ListMemberNotFound exception = new ListMemberNotFound(objectOrListMemberAccess.getLine(), memberName);
             objectOrListMemberAccess.addError(exception);
-            return new NoType();
+            return Types.NO_TYPE;
         }
         else {
             MemberAccessOnNoneObjOrListType exception = new MemberAccessOnNoneObjOrListType(objectOrListMemberAccess.getLine());
             objectOrListMemberAccess.addError(exception);
-            return new NoType();
+            return Types.NO_TYPE;
         }
     }
 
     @Override
     public Type visit(Identifier identifier) {
+        return record(identifier, check(identifier));
+    }
+
+    private Type check(Identifier identifier) {
+        if(identifier.getSymbolTableItem() instanceof LocalVariableSymbolTableItem)
+            return this.refineType(((LocalVariableSymbolTableItem) identifier.getSymbolTableItem()).getType());
         try {
             ClassSymbolTableItem classSymbolTableItem = (ClassSymbolTableItem) SymbolTable.root.getItem(ClassSymbolTableItem.START_KEY + this.currentClass.getClassName().getName(), true);
             SymbolTable classSymbolTable = classSymbolTableItem.getClassSymbolTable();
             MethodSymbolTableItem methodSymbolTableItem = (MethodSymbolTableItem) classSymbolTable.getItem(MethodSymbolTableItem.START_KEY + this.currentMethod.getMethodName().getName(), true);
             SymbolTable methodSymbolTable = methodSymbolTableItem.getMethodSymbolTable();
             LocalVariableSymbolTableItem localVariableSymbolTableItem = (LocalVariableSymbolTableItem) methodSymbolTable.getItem(LocalVariableSymbolTableItem.START_KEY + identifier.getName(), true);
+            identifier.setSymbolTableItem(localVariableSymbolTableItem);
             return this.refineType(localVariableSymbolTableItem.getType());
         } catch (ItemNotFoundException e) {
             VarNotDeclared exception = new VarNotDeclared(identifier.getLine(), identifier.getName());
             identifier.addError(exception);
-            return new NoType();
+            return Types.NO_TYPE;
         }
     }
 
     @Override
     public Type visit(ListAccessByIndex listAccessByIndex) {
+        return record(listAccessByIndex, check(listAccessByIndex));
+    }
+
+    private Type check(ListAccessByIndex listAccessByIndex) {
         Type instanceType = listAccessByIndex.getInstance().accept(this);
         boolean prevSeenNoneLvalue = this.seenNoneLvalue;
         Type indexType = listAccessByIndex.getIndex().accept(this);
@@ -422,10 +529,10 @@ public class ExpressionTypeChecker extends Visitor<Type> {
             if(!(listAccessByIndex.getIndex() instanceof IntValue) && !areAllSame) {
                 CantUseExprAsIndexOfMultiTypeList exception = new CantUseExprAsIndexOfMultiTypeList(listAccessByIndex.getLine());
                 listAccessByIndex.addError(exception);
-                return new NoType();
+                return Types.NO_TYPE;
             }
             if(indexErrored)
-                return new NoType();
+                return Types.NO_TYPE;
             if((listAccessByIndex.getIndex() instanceof IntValue) && !areAllSame && (((IntValue)listAccessByIndex.getIndex()).getConstant() < ((ListType)instanceType).getElementsTypes().size())) {
                 int index = ((IntValue)listAccessByIndex.getIndex()).getConstant();
                 return this.refineType(((ListType) instanceType).getElementsTypes().get(index).getType());
@@ -438,11 +545,15 @@ public class ExpressionTypeChecker extends Visitor<Type> {
             ListAccessByIndexOnNoneList exception = new ListAccessByIndexOnNoneList(listAccessByIndex.getLine());
             listAccessByIndex.addError(exception);
         }
-        return new NoType();
+        return Types.NO_TYPE;
     }
 
     @Override
     public Type visit(MethodCall methodCall) {
+        return record(methodCall, check(methodCall));
+    }
+
+    private Type check(MethodCall methodCall) {
         this.seenNoneLvalue = true;
         Type instanceType = methodCall.getInstance().accept(this);
         boolean prevIsInMethodCallStmt = this.isInMethodCallStmt;
@@ -455,10 +566,10 @@ public class ExpressionTypeChecker extends Visitor<Type> {
         if(!(instanceType instanceof FptrType || instanceType instanceof NoType)) {
             CallOnNoneFptrType exception = new CallOnNoneFptrType(methodCall.getLine());
             methodCall.addError(exception);
-            return new NoType();
+            return Types.NO_TYPE;
         }
         else if(instanceType instanceof NoType) {
-            return new NoType();
+            return Types.NO_TYPE;
         }
         else {
             ArrayList<Type> actualArgsTypes = ((FptrType) instanceType).getArgumentsTypes();
@@ -471,19 +582,23 @@ public class ExpressionTypeChecker extends Visitor<Type> {
             }
             if(this.isFirstSubTypeOfSecondMultiple(argsTypes, actualArgsTypes)) {
                 if(hasError)
-                    return new NoType();
+                    return Types.NO_TYPE;
                 return this.refineType(returnType);
             }
             else {
                 MethodCallNotMatchDefinition exception = new MethodCallNotMatchDefinition(methodCall.getLine());
                 methodCall.addError(exception);
-                return new NoType();
+                return Types.NO_TYPE;
             }
         }
     }
 
     @Override
     public Type visit(NewClassInstance newClassInstance) {
+        return record(newClassInstance, check(newClassInstance));
+    }
+
+    private Type check(NewClassInstance newClassInstance) {
         this.seenNoneLvalue = true;
         String className = newClassInstance.getClassType().getClassName().getName();
         ArrayList<Type> newInstanceTypes = new ArrayList<>();
@@ -491,7 +606,9 @@ public class ExpressionTypeChecker extends Visitor<Type> {
             newInstanceTypes.add(expression.accept(this));
         if(this.classHierarchy.doesGraphContainNode(className)) {
             try {
-                ClassSymbolTableItem classSymbolTableItem = (ClassSymbolTableItem) SymbolTable.root.getItem(ClassSymbolTableItem.START_KEY + className, true);
+                SymbolTableItem classItem = newClassInstance.getClassType().getClassName().getSymbolTableItem();
+                ClassSymbolTableItem classSymbolTableItem = classItem instanceof ClassSymbolTableItem ? (ClassSymbolTableItem) classItem :
+                        (ClassSymbolTableItem) SymbolTable.root.getItem(ClassSymbolTableItem.START_KEY + className, true);
                 MethodSymbolTableItem methodSymbolTableItem = (MethodSymbolTableItem) classSymbolTableItem.getClassSymbolTable().getItem(MethodSymbolTableItem.START_KEY + className, true);
                 ArrayList<Type> constructorActualTypes = methodSymbolTableItem.getArgTypes();
                 if(this.isFirstSubTypeOfSecondMultiple(newInstanceTypes, constructorActualTypes)) {
@@ -500,13 +617,13 @@ public class ExpressionTypeChecker extends Visitor<Type> {
                 else {
                     ConstructorArgsNotMatchDefinition exception = new ConstructorArgsNotMatchDefinition(newClassInstance);
                     newClassInstance.addError(exception);
-                    return new NoType();
+                    return Types.NO_TYPE;
                 }
             } catch (ItemNotFoundException ignored) {
                 if(newInstanceTypes.size() != 0) {
                     ConstructorArgsNotMatchDefinition exception = new ConstructorArgsNotMatchDefinition(newClassInstance);
                     newClassInstance.addError(exception);
-                    return new NoType();
+                    return Types.NO_TYPE;
                 }
                 else {
                     return newClassInstance.getClassType();
@@ -516,18 +633,26 @@ public class ExpressionTypeChecker extends Visitor<Type> {
         else {
             ClassNotDeclared exception = new ClassNotDeclared(newClassInstance.getLine(), className);
             newClassInstance.addError(exception);
-            return new NoType();
+            return Types.NO_TYPE;
         }
     }
 
     @Override
     public Type visit(ThisClass thisClass) {
+        return record(thisClass, check(thisClass));
+    }
+
+    private Type check(ThisClass thisClass) {
         this.seenNoneLvalue = true;
-        return new ClassType(currentClass.getClassName());
+        return currentClassType;
     }
 
     @Override
     public Type visit(ListValue listValue) {
+        return record(listValue, check(listValue));
+    }
+
+    private Type check(ListValue listValue) {
         this.seenNoneLvalue = true;
         ArrayList<ListNameType> types = new ArrayList<>();
         for(Expression element : listValue.getElements()) {
@@ -539,25 +664,41 @@ public class ExpressionTypeChecker extends Visitor<Type> {
 
     @Override
     public Type visit(NullValue nullValue) {
+        return record(nullValue, check(nullValue));
+    }
+
+    private Type check(NullValue nullValue) {
         this.seenNoneLvalue = true;
-        return new NullType();
+        return Types.NULL;
     }
 
     @Override
     public Type visit(IntValue intValue) {
+        return record(intValue, check(intValue));
+    }
+
+    private Type check(IntValue intValue) {
         this.seenNoneLvalue = true;
-        return new IntType();
+        return Types.INT;
     }
 
     @Override
     public Type visit(BoolValue boolValue) {
+        return record(boolValue, check(boolValue));
+    }
+
+    private Type check(BoolValue boolValue) {
         this.seenNoneLvalue = true;
-        return new BoolType();
+        return Types.BOOL;
     }
 
     @Override
     public Type visit(StringValue stringValue) {
+        return record(stringValue, check(stringValue));
+    }
+
+    private Type check(StringValue stringValue) {
         this.seenNoneLvalue = true;
-        return new StringType();
+        return Types.STRING;
     }
 }
@@ -26,8 +26,10 @@ import main.ast.types.single.StringType;
 import main.compileErrorException.typeErrors.*;
 import main.symbolTable.utils.graph.Graph;
 import main.visitor.Visitor;
+import main.visitor.utils.ClassTasks;
 
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
 
 public class TypeChecker extends Visitor<RetConBrk> {
     private final Graph<String> classHierarchy;
@@ -35,19 +37,33 @@ public class TypeChecker extends Visitor<RetConBrk> {
     private ClassDeclaration currentClass;
     private MethodDeclaration currentMethod;
     private boolean isInFor = false;
+    //when set, each class is checked by its own TypeChecker on this executor
+    private final ExecutorService executor;
 
     public TypeChecker(Graph<String> classHierarchy) {
+        this(classHierarchy, null);
+    }
+
+    public TypeChecker(Graph<String> classHierarchy, ExecutorService executor) {
         this.classHierarchy = classHierarchy;
         this.expressionTypeChecker = new ExpressionTypeChecker(classHierarchy);
+        this.executor = executor;
     }
 
     @Override
     public RetConBrk visit(Program program) {
         boolean mainCheck = false;
+        if(this.executor != null) {
+            ClassTasks.run(this.executor, program.getClasses(), classDeclaration -> {
+                new TypeChecker(this.classHierarchy).checkClass(classDeclaration);
+                return null;
+            });
+        }
+        else {
+            for(ClassDeclaration classDeclaration : program.getClasses())
+                this.checkClass(classDeclaration);
+        }
         for(ClassDeclaration classDeclaration : program.getClasses()) {
-            this.expressionTypeChecker.setCurrentClass(classDeclaration);
-            this.currentClass = classDeclaration;
-            classDeclaration.accept(this);
             if(classDeclaration.getClassName().getName().equals("Main"))
                 mainCheck = true;
         }
@@ -58,6 +74,12 @@ public class TypeChecker extends Visitor<RetConBrk> {
         return null;
     }
 
+    private void checkClass(ClassDeclaration classDeclaration) {
+        this.expressionTypeChecker.setCurrentClass(classDeclaration);
+        this.currentClass = classDeclaration;
+        classDeclaration.accept(this);
+    }
+
     @Override
     public RetConBrk visit(ClassDeclaration classDeclaration) {
         if(classDeclaration.getParentClassName() != null) {
@@ -0,0 +1,38 @@
+package main.visitor.utils;
+
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+//runs a pass over each class on the executor the compiler was given, results come back in program order
+public class ClassTasks {
+    private ClassTasks() {
+    }
+
+    public static <T> List<T> run(ExecutorService executor, List<ClassDeclaration> classes, Function<ClassDeclaration, T> task) {
+        List<Callable<T>> callables = new ArrayList<>();
+        for(ClassDeclaration classDeclaration : classes)
+            callables.add(() -> task.apply(classDeclaration));
+        List<T> results = new ArrayList<>();
+        try {
+            for(Future<T> future : executor.invokeAll(callables))
+                results.add(future.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if(e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+        return results;
+    }
+}
@@ -628,7 +628,7 @@ public class SophiaParser extends Parser {
 				{
 				setState(165);
 				match(VOID);
-				 ((MethodContext)_localctx).returnType =  new NullType(); 
+				 ((MethodContext)_localctx).returnType =  Types.NULL; 
 				}
 				}
 				break;
@@ -1350,7 +1350,7 @@ public class SophiaParser extends Parser {
 				{
 				setState(273);
 				match(VOID);
-				 _localctx.fptrTypeRet.setReturnType(new NullType()); 
+				 _localctx.fptrTypeRet.setReturnType(Types.NULL); 
 				}
 				break;
 			case FUNC:
@@ -1493,7 +1493,7 @@ public class SophiaParser extends Parser {
 				{
 				setState(294);
 				match(INT);
-				 ((PrimitiveDataTypeContext)_localctx).primitiveTypeRet =  new IntType(); 
+				 ((PrimitiveDataTypeContext)_localctx).primitiveTypeRet =  Types.INT; 
 				}
 				break;
 			case STRING:
@@ -1501,7 +1501,7 @@ public class SophiaParser extends Parser {
 				{
 				setState(296);
 				match(STRING);
-				 ((PrimitiveDataTypeContext)_localctx).primitiveTypeRet =  new StringType(); 
+				 ((PrimitiveDataTypeContext)_localctx).primitiveTypeRet =  Types.STRING; 
 				}
 				break;
 			case BOOLEAN:
@@ -1509,7 +1509,7 @@ public class SophiaParser extends Parser {
 				{
 				setState(298);
 				match(BOOLEAN);
-				 ((PrimitiveDataTypeContext)_localctx).primitiveTypeRet =  new BoolType(); 
+				 ((PrimitiveDataTypeContext)_localctx).primitiveTypeRet =  Types.BOOL; 
 				}
 				break;
 			default:
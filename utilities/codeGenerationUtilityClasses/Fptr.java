@@ -1,36 +1,27 @@
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.ArrayList;
+import java.lang.invoke.MethodHandle;
 
 public class Fptr {
+    static final FptrHandleCache handleCache = new FptrHandleCache();
+
     Object instance;
     String methodName;
+    MethodHandle handle;
 
     public Fptr(Object instance, String methodName) {
         this.instance = instance;
         this.methodName = methodName;
+        if(instance != null)
+            this.handle = handleCache.getSpreader(instance.getClass(), methodName);
     }
 
-    public Object invoke(ArrayList<Object> arguments) {
-        int argumentsSize = arguments.size();
-        Class[] argsClasses = new Class[argumentsSize];
-        Object[] argsArray = new Object[argumentsSize];
-        for(int i = 0; i < argumentsSize; i++) {
-            argsClasses[i] = arguments.get(i).getClass();
-            argsArray[i] = arguments.get(i);
-        }
-        Method objectMethod = null;
-        try {
-            objectMethod = this.instance.getClass().getMethod(this.methodName, argsClasses);
-        } catch (NoSuchMethodException e) { 
-            e.printStackTrace();
-        }
+    public Object invoke(Object[] arguments) {
+        //errors go on to the generated main, which writes out what was printed before the program stops
         try {
-            return objectMethod.invoke(this.instance, argsArray);
-        } catch (IllegalAccessException | InvocationTargetException e) { 
-            e.printStackTrace();
-            System.exit(1);
+            return (Object) this.handle.invokeExact(this.instance, arguments);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
         }
-        return null;
     }
-}
\ No newline at end of file
+}
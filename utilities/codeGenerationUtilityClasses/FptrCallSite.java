@@ -0,0 +1,65 @@
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+
+public class FptrCallSite extends MutableCallSite {
+    private static final int MAX_CACHED_TARGETS = 4;
+    private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    private static final Class<?> argumentsClass = new Object[0].getClass();
+
+    private int cachedTargets;
+
+    private FptrCallSite(MethodType type) throws ReflectiveOperationException {
+        super(type);
+        this.cachedTargets = 0;
+        MethodHandle fallback = lookup.findVirtual(lookup.lookupClass(), "fallback", MethodType.genericMethodType(0, true));
+        this.setTarget(fallback.bindTo(this).asCollector(argumentsClass, type.parameterCount()).asType(type));
+    }
+
+    //type is the descriptor of the call site: the Fptr followed by the arguments of the pointed method
+    public static MethodHandle bootstrap(String type) {
+        try {
+            MethodType callSiteType = MethodType.fromMethodDescriptorString(type, lookup.lookupClass().getClassLoader());
+            return new FptrCallSite(callSiteType).dynamicInvoker();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //the handle an fptr resolves to is cached per receiver class and method name, so comparing it checks both at once
+    private static boolean isCachedHandle(Object handle, Fptr fptr) {
+        return fptr.handle == handle;
+    }
+
+    private MethodHandle cachedTarget(Fptr fptr) throws ReflectiveOperationException {
+        MethodType type = this.type();
+        Class<?> fptrClass = type.parameterType(0);
+        Class<?> receiverClass = fptr.instance.getClass();
+        MethodHandle instance = lookup.findGetter(fptrClass, "instance", argumentsClass.getComponentType());
+        MethodHandle target = Fptr.handleCache.getTarget(receiverClass, fptr.methodName);
+        target = target.asType(type.changeParameterType(0, argumentsClass.getComponentType()));
+        target = MethodHandles.filterArguments(target, 0, instance);
+        MethodHandle test = lookup.findStatic(lookup.lookupClass(), "isCachedHandle",
+                MethodType.methodType(Boolean.TYPE, argumentsClass.getComponentType(), fptrClass));
+        test = MethodHandles.insertArguments(test, 0, fptr.handle);
+        return MethodHandles.guardWithTest(test, target, this.getTarget());
+    }
+
+    private MethodHandle megamorphicTarget() throws ReflectiveOperationException {
+        MethodType type = this.type();
+        MethodHandle invoke = lookup.findVirtual(type.parameterType(0), "invoke", MethodType.methodType(argumentsClass.getComponentType(), argumentsClass));
+        return invoke.asCollector(argumentsClass, type.parameterCount() - 1).asType(type);
+    }
+
+    private Object fallback(Object... arguments) throws Throwable {
+        Fptr fptr = (Fptr) arguments[0];
+        if(this.cachedTargets < MAX_CACHED_TARGETS) {
+            this.setTarget(this.cachedTarget(fptr));
+            this.cachedTargets++;
+        }
+        else
+            this.setTarget(this.megamorphicTarget());
+        return this.getTarget().invokeWithArguments(arguments);
+    }
+}
@@ -0,0 +1,41 @@
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+
+//sophia methods of a class by name, each as its own handle and as one taking the instance and an Object[] of arguments
+public class FptrHandleCache extends ClassValue<HashMap<String, MethodHandle[]>> {
+    private static final int TARGET = 0;
+    private static final int SPREADER = 1;
+
+    public MethodHandle getTarget(Class<?> type, String methodName) {
+        return get(type).get(methodName)[TARGET];
+    }
+
+    public MethodHandle getSpreader(Class<?> type, String methodName) {
+        return get(type).get(methodName)[SPREADER];
+    }
+
+    //methods declared by java/lang/Object and static ones, like main, are not sophia methods
+    @Override
+    protected HashMap<String, MethodHandle[]> computeValue(Class<?> type) {
+        HashMap<String, MethodHandle[]> handles = new HashMap<>();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        Class<?> argumentsClass = new Object[0].getClass();
+        for(Method method : type.getMethods()) {
+            if(method.getDeclaringClass().getSuperclass() == null || Modifier.isStatic(method.getModifiers()))
+                continue;
+            try {
+                int argumentsSize = method.getParameterCount();
+                MethodHandle target = lookup.unreflect(method);
+                MethodHandle spreader = target.asType(MethodType.genericMethodType(argumentsSize + 1)).asSpreader(argumentsClass, argumentsSize);
+                handles.put(method.getName(), new MethodHandle[]{target, spreader});
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return handles;
+    }
+}
@@ -1,31 +1,98 @@
-import java.util.ArrayList;
+import java.util.Arrays;
 
 public class List {
-    public ArrayList<Object> elements;
+    //only one of these is set, lists of only ints or only bools keep them unboxed
+    public Object[] elements;
+    public int[] ints;
+    public boolean[] bools;
+    //copies share their elements until one of them writes, a shared list copies its elements before that
+    private boolean isShared;
 
-    public List(ArrayList<Object> newElements) {
-        this.elements = new ArrayList<>();
-        for(Object newElement : newElements)
-            this.elements.add(getNewObject(newElement));
+    //lists of differently typed elements are generated subclasses that keep each element in its own field
+    public List() {
+    }
+
+    public List(Object[] elements) {
+        this.elements = elements;
+        for(int i = 0; i < elements.length; i++)
+            elements[i] = getNewObject(elements[i]);
+    }
+
+    public List(int[] ints) {
+        this.ints = ints;
+    }
+
+    public List(boolean[] bools) {
+        this.bools = bools;
     }
 
     public List(List that) {
-        this(that.elements);
+        this.elements = that.elements;
+        this.ints = that.ints;
+        this.bools = that.bools;
+        this.isShared = true;
+        that.isShared = true;
+    }
+
+    public List copy() {
+        return new List(this);
     }
 
     private Object getNewObject(Object o) {
         if(o instanceof List)
-            return new List((List) o);
+            return ((List) o).copy();
         else
             return o;
     }
 
+    private void unshare() {
+        if(this.elements != null) {
+            Object[] newElements = new Object[this.elements.length];
+            for(int i = 0; i < newElements.length; i++)
+                newElements[i] = getNewObject(this.elements[i]);
+            this.elements = newElements;
+        }
+        else if(this.ints != null)
+            this.ints = Arrays.copyOf(this.ints, this.ints.length);
+        else
+            this.bools = Arrays.copyOf(this.bools, this.bools.length);
+        this.isShared = false;
+    }
+
     public Object getElement(int index) {
-        return this.elements.get(index);
+        Object element = this.elements[index];
+        //an inner list may be written through the returned reference, so it must not be the shared one
+        if(this.isShared && element instanceof List) {
+            unshare();
+            element = this.elements[index];
+        }
+        return element;
     }
 
     public void setElement(int index, Object o) {
-        this.elements.set(index, getNewObject(o));
+        if(this.isShared)
+            unshare();
+        this.elements[index] = getNewObject(o);
+    }
+
+    public int getInt(int index) {
+        return this.ints[index];
+    }
+
+    public void setInt(int index, int value) {
+        if(this.isShared)
+            unshare();
+        this.ints[index] = value;
+    }
+
+    public boolean getBool(int index) {
+        return this.bools[index];
+    }
+
+    public void setBool(int index, boolean value) {
+        if(this.isShared)
+            unshare();
+        this.bools[index] = value;
     }
 
-}
\ No newline at end of file
+}
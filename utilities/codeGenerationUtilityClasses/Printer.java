@@ -0,0 +1,60 @@
+public class Printer {
+    //programs are single threaded, so prints go to one unsynchronized buffer that is written out when full or on exit
+    private static final byte[] buffer = new byte[1 << 16];
+    private static int length;
+
+    public static void print(int value) {
+        if(buffer.length - length < 11)
+            flushBuffer();
+        if(value < 0)
+            buffer[length++] = '-';
+        else
+            value = -value;
+        //digits are taken from the negative value, which also holds the smallest int
+        int start = length;
+        do {
+            buffer[length++] = (byte) ('0' - value % 10);
+            value /= 10;
+        } while(value != 0);
+        for(int i = start, j = length - 1; i < j; i++, j--) {
+            byte digit = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = digit;
+        }
+    }
+
+    public static void print(boolean value) {
+        print(value ? "true" : "false");
+    }
+
+    public static void print(String value) {
+        int size = value.length();
+        for(int i = 0; i < size; i++) {
+            char c = value.charAt(i);
+            //anything outside ascii is left to the platform's encoding, like System.out does
+            if(c >= 0x80) {
+                printEncoded(value.substring(i));
+                return;
+            }
+            if(length == buffer.length)
+                flushBuffer();
+            buffer[length++] = (byte) c;
+        }
+    }
+
+    private static void printEncoded(String value) {
+        flushBuffer();
+        byte[] bytes = value.getBytes();
+        System.out.write(bytes, 0, bytes.length);
+    }
+
+    private static void flushBuffer() {
+        System.out.write(buffer, 0, length);
+        length = 0;
+    }
+
+    public static void flush() {
+        flushBuffer();
+        System.out.flush();
+    }
+}